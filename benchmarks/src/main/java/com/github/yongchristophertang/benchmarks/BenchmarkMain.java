@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. It accepts the same options as {@link org.openjdk.jmh.Main}, and always adds
+ * the allocation profiler, i.e. {@code -prof gc}, so that every run reports the allocation rate per operation next to
+ * its time. Logs of the benchmarked code go to {@code rest-connector-benchmarks.log} under the temporary directory.
+ *
+ * <pre>
+ *
+ * java -jar target/benchmarks.jar                        # all benchmarks
+ * java -jar target/benchmarks.jar JsonPath -p size=5MB   # a subset, with JMH options
+ *
+ * </pre>
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams() ||
+            options.shouldListProfilers() || options.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class)
+            .jvmArgsAppend("-Dlog4j.configurationFile=log4j2-benchmarks.xml").build()).run();
+    }
+}
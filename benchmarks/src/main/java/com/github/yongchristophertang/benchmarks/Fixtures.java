@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.response.DefaultHttpResult;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared fixtures of the benchmarks.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Return the size in bytes of a body size parameter, e.g. {@code 1KB}, {@code 100KB} or {@code 5MB}.
+     */
+    static int bytes(String size) {
+        int factor = size.endsWith("MB") ? 1024 * 1024 : size.endsWith("KB") ? 1024 : 1;
+        return Integer.parseInt(size.replaceAll("[^0-9]", "")) * factor;
+    }
+
+    /**
+     * Return a json object whose {@code items} array makes it at least {@code bytes} long.
+     */
+    static byte[] json(int bytes) {
+        StringBuilder json = new StringBuilder(bytes + 128).append("{\"code\":0,\"items\":[");
+        for (int i = 0; json.length() < bytes; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\",\"price\":")
+                .append(i % 100).append(".5,\"tags\":[\"a\",\"b\"]}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return a fresh buffered result of {@code httpRequest} with a 200 json response of {@code body}, which shares
+     * the body bytes but none of the parsed state of former results.
+     */
+    static DefaultHttpResult result(HttpRequest httpRequest, byte[] body) throws IOException {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        response.setHeader("Content-Type", ContentType.APPLICATION_JSON.toString());
+        DefaultHttpResult result = new DefaultHttpResult(httpRequest, response, 1, "list items");
+        result.bufferResponse();
+        return result;
+    }
+
+    static DefaultHttpResult result(byte[] body) throws IOException {
+        return result(new HttpGet("http://localhost:8080/items"), body);
+    }
+
+    /**
+     * Item of the {@code items} array of {@link #json}.
+     */
+    public static class Item {
+        public int id;
+        public String name;
+        public double price;
+        public String[] tags;
+    }
+}
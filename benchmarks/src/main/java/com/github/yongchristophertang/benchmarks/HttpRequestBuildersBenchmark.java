@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.request.HttpRequestBuilders;
+import org.apache.http.HttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.get;
+
+/**
+ * Cost of {@link HttpRequestBuilders#buildRequest} with path variables, headers and a growing number of query
+ * parameters, from a fresh builder as every performed request does.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpRequestBuildersBenchmark {
+    @Param({"1", "10", "100"})
+    private int params;
+
+    private String[] names;
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        names = new String[params];
+        values = new String[params];
+        for (int i = 0; i < params; i++) {
+            names[i] = "param" + i;
+            values[i] = "value " + i + " & more";
+        }
+    }
+
+    @Benchmark
+    public HttpRequest buildRequest() throws Exception {
+        HttpRequestBuilders builders = get("http://localhost:8080/catalog/{category}/items/{id}")
+            .path("category", "books").path("id", "42").header("X-Trace", "trace-42").accept("application/json");
+        for (int i = 0; i < params; i++) {
+            builders.param(names[i], values[i]);
+        }
+        return builders.buildRequest();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.ResultMatcher;
+import com.github.yongchristophertang.engine.web.response.DefaultHttpResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.jsonPath;
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * Cost of a typical chain of {@link com.github.yongchristophertang.engine.web.response.JsonPathResultMatchers} on a
+ * freshly received response, which includes parsing its body once.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonPathResultMatchersBenchmark {
+    @Param({"1KB", "100KB", "5MB"})
+    private String size;
+
+    private byte[] body;
+    private ResultMatcher[] matchers;
+
+    @Setup
+    public void setUp() {
+        body = Fixtures.json(Fixtures.bytes(size));
+        matchers = new ResultMatcher[]{jsonPath("$.code", is(0)), jsonPath("$.items").isArray(),
+            jsonPath("$.items[0].name").value("item-0"), jsonPath("$.items[1].tags").exists()};
+    }
+
+    @Benchmark
+    public DefaultHttpResult matchChain() throws Exception {
+        DefaultHttpResult result = Fixtures.result(body);
+        for (ResultMatcher matcher : matchers) {
+            matcher.match(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.ResultTransform;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.response.HttpResultTransformers.json;
+
+/**
+ * Cost of {@link com.github.yongchristophertang.engine.web.response.JsonResultTransformer#list} binding the items of
+ * a freshly received response, with and without a json path to them.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonResultTransformerBenchmark {
+    @Param({"1KB", "100KB"})
+    private String size;
+
+    private byte[] object;
+    private byte[] array;
+    private ResultTransform<List<Fixtures.Item>> listAtPath;
+    private ResultTransform<List<Fixtures.Item>> list;
+
+    @Setup
+    public void setUp() {
+        object = Fixtures.json(Fixtures.bytes(size));
+        String json = new String(object, StandardCharsets.UTF_8);
+        array = json.substring(json.indexOf('['), json.lastIndexOf(']') + 1).getBytes(StandardCharsets.UTF_8);
+        listAtPath = json("$.items").list(Fixtures.Item.class);
+        list = json().list(Fixtures.Item.class);
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> listAtPath() throws Exception {
+        return listAtPath.transform(Fixtures.result(object));
+    }
+
+    @Benchmark
+    public List<Fixtures.Item> list() throws Exception {
+        return list.transform(Fixtures.result(array));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.ResultHandler;
+import com.github.yongchristophertang.engine.web.response.AsyncPrintResultHandler;
+import com.github.yongchristophertang.engine.web.response.AsyncPrintResultHandler.Backpressure;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.response.HttpResultHandlers.print;
+import static com.github.yongchristophertang.engine.web.response.HttpResultHandlers.printAsync;
+
+/**
+ * Cost of {@link com.github.yongchristophertang.engine.web.response.PrintResultHandler} formatting a request and its
+ * 1 KB json response into the log, which the benchmark configuration writes to a file, and the request thread's share
+ * of that cost with {@link AsyncPrintResultHandler}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrintResultHandlerBenchmark {
+    private final ResultHandler handler = print();
+    private AsyncPrintResultHandler asyncHandler;
+    private byte[] body;
+    private HttpRequest get;
+    private HttpRequest post;
+
+    @Setup
+    public void setUp() {
+        body = Fixtures.json(1024);
+        get = new HttpGet("http://localhost:8080/catalog/books/items?tag=new&tag=sale");
+        HttpPost httpPost = new HttpPost("http://localhost:8080/catalog/books/items");
+        httpPost.setEntity(new StringEntity("name=item-42&price=9.5", ContentType.APPLICATION_FORM_URLENCODED));
+        post = httpPost;
+        asyncHandler = printAsync(1024, Backpressure.DROP, 8192);
+    }
+
+    @TearDown
+    public void tearDown() {
+        asyncHandler.close();
+    }
+
+    @Benchmark
+    public void printGet() throws Exception {
+        handler.handle(Fixtures.result(get, body));
+    }
+
+    @Benchmark
+    public void printPost() throws Exception {
+        handler.handle(Fixtures.result(post, body));
+    }
+
+    @Benchmark
+    public void printGetAsync() throws Exception {
+        asyncHandler.handle(Fixtures.result(get, body));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.annotations.*;
+import com.github.yongchristophertang.engine.web.request.RequestBuilder;
+import com.github.yongchristophertang.engine.web.request.TestRequestBuilders;
+import org.apache.http.HttpRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code RequestProxy.invoke} on a representative annotated interface, i.e. binding the arguments of a call
+ * to a fresh request builder, with and without building the request itself.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestProxyBenchmark {
+    private final List<String> tags = Arrays.asList("new", "sale", "featured");
+    private CatalogAPI api;
+
+    @Setup
+    public void setUp() throws Exception {
+        api = TestRequestBuilders.api(CatalogAPI.class);
+    }
+
+    @Benchmark
+    public RequestBuilder invokeGet() {
+        return api.getItem("books", 42, tags, "trace-42");
+    }
+
+    @Benchmark
+    public RequestBuilder invokePost() {
+        return api.createItem("books", "item-42", "9.5", "trace-42");
+    }
+
+    @Benchmark
+    public HttpRequest invokeAndBuildGet() throws Exception {
+        return api.getItem("books", 42, tags, "trace-42").buildRequest();
+    }
+
+    @Benchmark
+    public HttpRequest invokeAndBuildPost() throws Exception {
+        return api.createItem("books", "item-42", "9.5", "trace-42").buildRequest();
+    }
+
+    @Host(value = "localhost", port = 8080)
+    @Path("/catalog/")
+    public interface CatalogAPI {
+        @QueryParam("token")
+        String TOKEN = "fixed";
+
+        @GET
+        @Path("{category}/items/{id}")
+        @Description("get an item")
+        @Consume("application/json")
+        RequestBuilder getItem(@PathParam("category") String category, @PathParam("id") int id,
+            @QueryParam("tag") List<String> tags, @HeaderParam("X-Trace") String trace);
+
+        @POST
+        @Path("{category}/items")
+        @Description("create an item")
+        @Produce("application/x-www-form-urlencoded")
+        RequestBuilder createItem(@PathParam("category") String category, @BodyParam("name") String name,
+            @BodyParam("price") String price, @HeaderParam("X-Trace") String trace);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.benchmarks;
+
+import com.github.yongchristophertang.engine.web.HttpResult;
+import com.github.yongchristophertang.engine.web.WebTemplate;
+import com.github.yongchristophertang.engine.web.WebTemplateBuilder;
+import com.github.yongchristophertang.engine.web.stub.StubRoute;
+import com.github.yongchristophertang.engine.web.stub.StubServer;
+import com.github.yongchristophertang.engine.web.stub.StubServerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.get;
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.jsonPath;
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.status;
+import static org.hamcrest.CoreMatchers.is;
+
+/**
+ * End-to-end cost of {@link WebTemplate#perform} against an embedded {@link StubServer} on the loopback interface,
+ * answering a 1 KB json body to every request, so that the client side dominates.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebTemplateBenchmark {
+    private StubServer server;
+    private WebTemplate webTemplate;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = StubServerBuilder.create()
+            .route(StubRoute.get("/catalog/{category}/items/{id}").body(Fixtures.json(1024), "application/json"))
+            .build();
+        url = server.getBaseUrl() + "/catalog/{category}/items/{id}";
+        webTemplate = WebTemplateBuilder.defaultConfig().build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        webTemplate.close();
+        server.close();
+    }
+
+    @Benchmark
+    public HttpResult perform() throws Exception {
+        return webTemplate.perform(get(url).path("category", "books").path("id", "42").param("tag", "new"))
+            .andReturn();
+    }
+
+    @Benchmark
+    public HttpResult performAndExpect() throws Exception {
+        return webTemplate.perform(get(url).path("category", "books").path("id", "42").param("tag", "new"))
+            .andExpect(status().is(200)).andExpect(jsonPath("$.items[0].name", is("item-0"))).andReturn();
+    }
+}
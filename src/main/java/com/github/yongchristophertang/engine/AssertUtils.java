@@ -75,4 +75,13 @@ public abstract class AssertUtils {
             throw new IllegalArgumentException(message);
         }
     }
+
+    /**
+     * Assert an expression is true.
+     */
+    public static void isTrue(boolean expression, String message) {
+        if (!expression) {
+            throw new IllegalArgumentException(message);
+        }
+    }
 }
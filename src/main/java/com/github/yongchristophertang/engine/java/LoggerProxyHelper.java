@@ -17,7 +17,7 @@
 package com.github.yongchristophertang.engine.java;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.yongchristophertang.engine.json.JsonCodec;
 import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.InvocationTargetException;
@@ -98,11 +98,10 @@ class LoggerProxyHelper {
             return obj.toString();
         }
 
-        ObjectMapper mapper = new ObjectMapper();
+        JsonCodec codec = JsonCodec.getDefault();
         try {
             return obj.getClass().getSimpleName() + ": " +
-                (pretty ? mapper.writerWithDefaultPrettyPrinter().writeValueAsString(obj) :
-                    mapper.writeValueAsString(obj));
+                (pretty ? codec.prettyWriter().writeValueAsString(obj) : codec.writer().writeValueAsString(obj));
         } catch (JsonProcessingException e) {
             return "The object has not implemented toString() method and cannot be serialized to a string either";
         }
@@ -16,7 +16,9 @@
 
 package com.github.yongchristophertang.engine.java.handler;
 
+import com.github.yongchristophertang.engine.json.JsonPathCache;
 import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.ReadContext;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 
@@ -32,17 +34,28 @@ import static org.hamcrest.CoreMatchers.*;
  */
 public class JsonAssertion {
     private final String context;
+    private ReadContext document;
 
     public JsonAssertion(String context) {
         this.context = context;
     }
 
+    /**
+     * Return the parsed json document, which is only parsed by the first assertion.
+     */
+    private ReadContext document() {
+        if (document == null) {
+            document = JsonPath.parse(context);
+        }
+        return document;
+    }
+
     /**
      * Evaluate the JSONPath and assert the value of the content found with the
      * given Hamcrest {@code Matcher}.
      */
     public <T> JsonAssertion pathMatch(String expression, final Matcher<T> matcher) {
-        MatcherAssert.assertThat("Json value for " + expression, JsonPath.compile(expression).read(context), matcher);
+        MatcherAssert.assertThat("Json value for " + expression, document().read(JsonPathCache.getDefault().compile(expression)), matcher);
         return this;
     }
 
@@ -58,7 +71,7 @@ public class JsonAssertion {
      * Evaluate the JSONPath and assert that content exists.
      */
     public JsonAssertion pathExist(String expression) {
-        Object value = JsonPath.compile(expression).read(context);
+        Object value = document().read(JsonPathCache.getDefault().compile(expression));
         MatcherAssert.assertThat("Jason Path Exists:", value, notNullValue());
         if (value instanceof List) {
             MatcherAssert.assertThat("Jason Path Collection Exists:", ((List<?>) value).isEmpty(), is(false));
@@ -70,7 +83,7 @@ public class JsonAssertion {
      * Evaluate the JSON path and assert no content was found.
      */
     public JsonAssertion pathNotExist(String expression) {
-        Object value = JsonPath.compile(expression).read(context);
+        Object value = document().read(JsonPathCache.getDefault().compile(expression));
         MatcherAssert.assertThat("Jason Path Exists:", value, nullValue());
         if (value instanceof List) {
             MatcherAssert.assertThat("Jason Path Collection Exists:", ((List<?>) value).isEmpty(), is(true));
@@ -90,9 +103,9 @@ public class JsonAssertion {
      * Evaluate the JSON path and assert the array found has the expected size.
      */
     public JsonAssertion arraySize(String expression, int size) {
-        pathMatch(expression, instanceOf(List.class));
-        MatcherAssert.assertThat("Json Path List Size:",
-                ((List<?>) JsonPath.compile(expression).read(context)).size(), is(size));
+        Object value = document().read(JsonPathCache.getDefault().compile(expression));
+        MatcherAssert.assertThat("Json value for " + expression, value, instanceOf(List.class));
+        MatcherAssert.assertThat("Json Path List Size:", ((List<?>) value).size(), is(size));
         return this;
     }
 }
@@ -16,11 +16,9 @@
 
 package com.github.yongchristophertang.engine.java.handler;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
-import com.jayway.jsonpath.JsonPath;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import com.github.yongchristophertang.engine.json.JsonPathCache;
 
 import java.io.IOException;
 import java.util.List;
@@ -58,7 +56,7 @@ public class JsonTransformer {
      */
     public JsonTransformer parse(String expression) {
         Objects.nonNull(expression);
-        return new JsonTransformer(JsonPath.compile(expression).read(context).toString());
+        return new JsonTransformer(JsonPathCache.getDefault().compile(expression).read(context).toString());
     }
 
     /**
@@ -68,14 +66,12 @@ public class JsonTransformer {
      */
     public <T> T object(String expression, Class<T> clazz) {
         Objects.nonNull(expression);
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        mapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+        ObjectReader reader = JsonCodec.getDefault().reader(clazz);
         try {
-            return expression == null ? mapper.readValue(context, clazz) :
-                    mapper.readValue(JsonPath.compile(expression).read(context).toString(), clazz);
+            return expression == null ? reader.readValue(context) :
+                    reader.readValue(JsonPathCache.getDefault().compile(expression).read(context).toString());
         } catch (Exception e) {
-            return clazz.cast(JsonPath.compile(expression).read(context));
+            return clazz.cast(JsonPathCache.getDefault().compile(expression).read(context));
         }
     }
 
@@ -85,12 +81,9 @@ public class JsonTransformer {
      * @param clazz the type class of transformed list member object
      */
     public <T> List<T> list(String expression, Class<T> clazz) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        return expression == null ? mapper.readValue(context, TypeFactory.defaultInstance().constructCollectionType(
-                List.class, clazz)) : mapper.readValue(JsonPath.compile(expression).read(context).toString(),
-                TypeFactory.defaultInstance().constructCollectionType(
-                        List.class, clazz));
+        ObjectReader reader = JsonCodec.getDefault().listReader(clazz);
+        return expression == null ? reader.readValue(context) :
+                reader.readValue(JsonPathCache.getDefault().compile(expression).read(context).toString());
     }
 
     /**
@@ -100,11 +93,8 @@ public class JsonTransformer {
      * @param valueClass the type class of transformed map value object
      */
     public <K, V> Map<K, V> map(String expression, Class<K> keyClass, Class<V> valueClass) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        return expression == null ? mapper.readValue(context,
-                TypeFactory.defaultInstance().constructMapLikeType(Map.class, keyClass, valueClass)) :
-                mapper.readValue(JsonPath.compile(expression).read(context).toString(),
-                        TypeFactory.defaultInstance().constructMapLikeType(Map.class, keyClass, valueClass));
+        ObjectReader reader = JsonCodec.getDefault().mapReader(keyClass, valueClass);
+        return expression == null ? reader.readValue(context) :
+                reader.readValue(JsonPathCache.getDefault().compile(expression).read(context).toString());
     }
 }
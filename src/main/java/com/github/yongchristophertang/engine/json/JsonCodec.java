@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.yongchristophertang.engine.AssertUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Json codec which holds a shared, pre-configured {@link ObjectMapper} and caches the {@link ObjectReader}s for each
+ * target type, so that Jackson's serializer and deserializer caches are kept across requests.
+ * Instances are thread safe, however the wrapped mapper must not be re-configured after the codec is created.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class JsonCodec {
+    private static final JsonCodec DEFAULT = new JsonCodec(defaultMapper());
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectWriter prettyWriter;
+    private final ConcurrentMap<Object, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a codec with a custom {@code mapper}.
+     */
+    public JsonCodec(ObjectMapper mapper) {
+        AssertUtils.notNull(mapper, "mapper must not be null");
+        this.mapper = mapper;
+        this.writer = mapper.writer();
+        this.prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+    }
+
+    /**
+     * Return the codec shared by default, whose mapper ignores unknown properties and allows unquoted field names.
+     */
+    public static JsonCodec getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Create a new {@link ObjectMapper} configured as the one of {@link #getDefault()}, for further customization.
+     */
+    public static ObjectMapper defaultMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+        return mapper;
+    }
+
+    /**
+     * Return the wrapped mapper.
+     */
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Return the shared reader for instances of {@code clazz}.
+     */
+    public ObjectReader reader(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, k -> mapper.readerFor(clazz));
+    }
+
+    /**
+     * Return the shared reader for lists with {@code elementClass} as its member class.
+     */
+    public ObjectReader listReader(Class<?> elementClass) {
+        return reader(Arrays.asList(List.class, elementClass),
+            t -> t.constructCollectionType(List.class, elementClass));
+    }
+
+    /**
+     * Return the shared reader for maps with {@code keyClass} as its key class and {@code valueClass} as its value
+     * class.
+     */
+    public ObjectReader mapReader(Class<?> keyClass, Class<?> valueClass) {
+        return reader(Arrays.asList(Map.class, keyClass, valueClass),
+            t -> t.constructMapLikeType(Map.class, keyClass, valueClass));
+    }
+
+    private ObjectReader reader(Object key, Function<TypeFactory, JavaType> type) {
+        return readers.computeIfAbsent(key, k -> mapper.readerFor(type.apply(mapper.getTypeFactory())));
+    }
+
+    /**
+     * Return the shared writer.
+     */
+    public ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * Return the shared writer with the default pretty printer.
+     */
+    public ObjectWriter prettyWriter() {
+        return prettyWriter;
+    }
+
+    /**
+     * Reformat a json string for better look in printing, the string is returned as it is if it is not a json.
+     *
+     * @param rawJson raw json string
+     * @return formatted json string
+     */
+    public String prettyPrint(String rawJson) {
+        try {
+            return prettyWriter.writeValueAsString(reader(Object.class).readValue(rawJson));
+        } catch (IOException | RuntimeException e) {
+            return rawJson;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.json;
+
+import com.github.yongchristophertang.engine.AssertUtils;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.Collection;
+
+/**
+ * Bounded cache of compiled {@link JsonPath}s keyed by their expressions, shared by all the json matchers,
+ * transformers and assertions, so that recurring expressions are only compiled once. The least recently used paths
+ * are evicted once the cache is full. Instances are thread safe.
+ * <p>
+ * Expressions known in advance can be compiled at suite start, e.g. in a {@code @BeforeSuite} method:
+ * <pre>
+ * JsonPathCache.getDefault().warmUp(Arrays.asList("$.data.id", "$.data.items"));
+ * </pre>
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class JsonPathCache {
+    /**
+     * Default maximum number of compiled paths kept by the cache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final JsonPathCache DEFAULT = new JsonPathCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final LoadingCache<String, JsonPath> paths;
+
+    /**
+     * Create a cache holding at most {@code maximumSize} compiled paths.
+     */
+    public JsonPathCache(int maximumSize) {
+        paths = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats()
+            .build(CacheLoader.from(expression -> JsonPath.compile(expression)));
+    }
+
+    /**
+     * Return the cache shared by the framework.
+     */
+    public static JsonPathCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Compile {@code expression}, or return the path compiled before.
+     *
+     * @param expression the JSON path expression
+     * @throws com.jayway.jsonpath.InvalidPathException if the expression is invalid
+     */
+    public JsonPath compile(String expression) {
+        AssertUtils.notNull(expression, "json path expression must not be null");
+        try {
+            return paths.getUnchecked(expression);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Compile all the {@code expressions} ahead of their first evaluations.
+     *
+     * @param expressions the JSON path expressions
+     * @throws com.jayway.jsonpath.InvalidPathException if any expression is invalid
+     */
+    public void warmUp(Collection<String> expressions) {
+        expressions.forEach(this::compile);
+    }
+
+    /**
+     * Return the number of compilations served from the cache.
+     */
+    public long hitCount() {
+        return paths.stats().hitCount();
+    }
+
+    /**
+     * Return the number of compilations which missed the cache.
+     */
+    public long missCount() {
+        return paths.stats().missCount();
+    }
+
+    /**
+     * Return a snapshot of all the cache statistics, including hits, misses and evictions.
+     */
+    public CacheStats stats() {
+        return paths.stats();
+    }
+
+    /**
+     * Return the number of compiled paths currently cached.
+     */
+    public long size() {
+        return paths.size();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.client.cache.CacheResponseStatus;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of the response cache of a {@link WebTemplate}, see {@link WebTemplateBuilder#cache}:
+ * <ul>
+ * <li>hits: responses served from the cache without contacting the origin</li>
+ * <li>misses: responses fetched from the origin, whether or not they are stored afterwards</li>
+ * <li>revalidations: cached responses served after the origin confirmed them with a 304</li>
+ * <li>module responses: responses generated by the cache itself, e.g. a 504 for an {@code only-if-cached}
+ * request</li>
+ * </ul>
+ * All the counters stay zero if the template has no cache.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class CacheStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder moduleResponses = new LongAdder();
+
+    /**
+     * Access via {@link WebTemplate#getCacheStatistics}
+     */
+    CacheStatistics() {
+    }
+
+    /**
+     * Count a response by its cache status, and return whether it was served from the cache.
+     */
+    boolean record(CacheResponseStatus status) {
+        if (status == null) {
+            return false;
+        }
+        switch (status) {
+            case CACHE_HIT:
+                hits.increment();
+                return true;
+            case VALIDATED:
+                revalidations.increment();
+                return true;
+            case CACHE_MODULE_RESPONSE:
+                moduleResponses.increment();
+                return false;
+            default:
+                misses.increment();
+                return false;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    public long getModuleResponseCount() {
+        return moduleResponses.sum();
+    }
+
+    /**
+     * Return the ratio of responses served from the cache, including revalidated ones, to all the counted responses,
+     * or zero if nothing has been counted yet.
+     */
+    public double getHitRatio() {
+        long served = getHitCount() + getRevalidationCount();
+        long total = served + getMissCount() + getModuleResponseCount();
+        return total == 0 ? 0 : (double) served / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, revalidations=%d, moduleResponses=%d, hitRatio=%.3f", getHitCount(),
+            getMissCount(), getRevalidationCount(), getModuleResponseCount(), getHitRatio());
+    }
+}
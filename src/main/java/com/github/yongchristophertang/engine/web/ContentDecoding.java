@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import com.google.common.io.ByteStreams;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.client.entity.InputStreamFactory;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+import org.brotli.dec.BrotliInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming decoding of gzip, deflate and brotli response bodies, which also counts the bytes of a body before and
+ * after decoding. The counters are put into the {@link HttpContext} of the execution.
+ * The blocking client decodes with its own {@link ResponseContentEncoding} between the interceptors {@link #WIRE} and
+ * {@link #CONTENT}, while the non-blocking one runs its response interceptors before the body arrives, hence its
+ * responses are decoded by {@link #decode} once completed.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class ContentDecoding {
+    private static final String WIRE_SIZE = ContentDecoding.class.getName() + ".wireSize";
+    private static final String CONTENT_SIZE = ContentDecoding.class.getName() + ".contentSize";
+
+    /**
+     * Decoders by content coding, the keys are also advertised in the {@code Accept-Encoding} header.
+     */
+    static final Map<String, InputStreamFactory> DECODERS;
+
+    static {
+        Map<String, InputStreamFactory> decoders = new LinkedHashMap<>();
+        decoders.put("gzip", GZIPInputStream::new);
+        decoders.put("deflate", DeflateInputStream::new);
+        decoders.put("br", BrotliInputStream::new);
+        DECODERS = decoders;
+    }
+
+    /**
+     * Count the bytes of the response body as transferred, must run before decoding.
+     */
+    static final HttpResponseInterceptor WIRE = (response, context) -> count(response, context, WIRE_SIZE);
+
+    /**
+     * Count the bytes of the decoded response body, must run after decoding.
+     */
+    static final HttpResponseInterceptor CONTENT = (response, context) -> count(response, context, CONTENT_SIZE);
+
+    private static final ResponseContentEncoding DECODING;
+
+    static {
+        RegistryBuilder<InputStreamFactory> registry = RegistryBuilder.create();
+        DECODERS.forEach(registry::register);
+        DECODING = new ResponseContentEncoding(registry.build());
+    }
+
+    private ContentDecoding() {
+    }
+
+    /**
+     * Decode the body of a completed response in place and count its bytes.
+     */
+    static void decode(HttpResponse response, HttpContext context) throws IOException {
+        try {
+            WIRE.process(response, context);
+            DECODING.process(response, context);
+            CONTENT.process(response, context);
+        } catch (HttpException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Return the number of bytes of the response body read so far as transferred, zero if it has no body.
+     */
+    static long getWireSize(HttpContext context) {
+        return getSize(context, WIRE_SIZE);
+    }
+
+    /**
+     * Return the number of bytes of the decoded response body read so far, zero if it has no body.
+     */
+    static long getContentSize(HttpContext context) {
+        return getSize(context, CONTENT_SIZE);
+    }
+
+    private static long getSize(HttpContext context, String attribute) {
+        Object size = context.getAttribute(attribute);
+        return size instanceof AtomicLong ? ((AtomicLong) size).get() : 0;
+    }
+
+    private static void count(HttpResponse response, HttpContext context, String attribute) {
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            AtomicLong size = new AtomicLong();
+            context.setAttribute(attribute, size);
+            response.setEntity(new CountingEntity(entity, size));
+        }
+    }
+
+    /**
+     * Entity which counts the bytes read from the wrapped one.
+     */
+    private static final class CountingEntity extends HttpEntityWrapper {
+        private final AtomicLong size;
+
+        CountingEntity(HttpEntity wrappedEntity, AtomicLong size) {
+            super(wrappedEntity);
+            this.size = size;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(wrappedEntity.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        size.incrementAndGet();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        size.addAndGet(n);
+                    }
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream in = getContent()) {
+                ByteStreams.copy(in, out);
+            }
+        }
+    }
+}
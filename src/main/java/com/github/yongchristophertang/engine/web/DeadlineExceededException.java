@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.HttpRequest;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Signals that a request is aborted because its deadline expired, see {@link WebTemplateBuilder#deadline}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class DeadlineExceededException extends InterruptedIOException {
+    private final long deadline;
+
+    public DeadlineExceededException(HttpRequest request, long deadline, Throwable cause) {
+        super("Deadline of " + deadline + "ms exceeded: " + request.getRequestLine());
+        this.deadline = deadline;
+        initCause(cause);
+    }
+
+    /**
+     * Return the expired deadline in milliseconds.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler of the request deadlines of all the templates, with a single daemon thread which only runs the aborting
+ * of expired requests. Cancelled deadlines are removed right away, as most requests complete in time.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class Deadlines {
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "rest-connector-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    private Deadlines() {
+    }
+
+    /**
+     * Run {@code onExpiry} once {@code millis} elapse, unless the returned future is cancelled before.
+     */
+    static ScheduledFuture<?> schedule(Runnable onExpiry, long millis) {
+        return SCHEDULER.schedule(onExpiry, millis, TimeUnit.MILLISECONDS);
+    }
+}
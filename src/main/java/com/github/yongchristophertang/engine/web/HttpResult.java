@@ -16,10 +16,25 @@
 
 package com.github.yongchristophertang.engine.web;
 
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import com.github.yongchristophertang.engine.xml.XmlDocuments;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.ReadContext;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.w3c.dom.Document;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides access to the result of an executed request.
@@ -29,12 +44,34 @@ import java.io.IOException;
  */
 public interface HttpResult {
     /**
-     * Return the cost time of performed http request.
+     * Return the cost time of performed http request, until the response headers are received.
      *
      * @return cost time in milliseconds
      */
     long getCostTime();
 
+    /**
+     * Return the per-phase durations of the performed http request.
+     */
+    default RequestTimings getTimings() {
+        return RequestTimings.ofTotal(TimeUnit.MILLISECONDS.toNanos(getCostTime()));
+    }
+
+    /**
+     * Return the number of retries before this result, see {@link WebTemplateBuilder#retry}.
+     */
+    default int getRetryCount() {
+        return getAttemptTimings().size() - 1;
+    }
+
+    /**
+     * Return the timings of all the attempts of this request in order, where the last one is the attempt of this
+     * result, i.e. {@link #getTimings}, and the others failed and were retried.
+     */
+    default List<RequestTimings> getAttemptTimings() {
+        return Collections.singletonList(getTimings());
+    }
+
     /**
      * Return the performed http request.
      */
@@ -52,8 +89,95 @@ public interface HttpResult {
      */
     String getResponseStringContent() throws IOException;
 
+    /**
+     * Return a new stream over the response content body. Unlike {@link #getResponseStringContent}, the content does
+     * not need to be held on the heap, so prefer this method for large bodies. The caller is responsible for closing
+     * the stream.
+     */
+    default InputStream getResponseStream() throws IOException {
+        return new ByteArrayInputStream(getResponseStringContent().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Return a new reader over the response content body decoded as by {@link #getResponseStringContent}, or null if
+     * there is no content. Like {@link #getResponseStream}, it lets callers read only part of a large body. The caller
+     * is responsible for closing the reader.
+     *
+     * @since 0.7
+     */
+    default Reader getResponseReader() throws IOException {
+        String content = getResponseStringContent();
+        return content == null ? null : new StringReader(content);
+    }
+
+    /**
+     * Return a new channel over the response content body, see {@link #getResponseStream}.
+     */
+    default ReadableByteChannel getResponseChannel() throws IOException {
+        return Channels.newChannel(getResponseStream());
+    }
+
+    /**
+     * Return the response content as a parsed json document, against which all the json matchers and transformers
+     * evaluate their paths. Implementations should parse the content at most once.
+     */
+    default ReadContext getJsonContext() throws IOException {
+        return JsonPath.parse(getResponseStringContent());
+    }
+
+    /**
+     * Return the response content as a parsed xml document, against which all the XPath matchers evaluate their
+     * expressions. Implementations should parse the content at most once.
+     *
+     * @throws IOException if the content is not well-formed xml
+     */
+    default Document getXmlDocument() throws IOException {
+        try (InputStream in = getResponseStream()) {
+            return XmlDocuments.parse(in);
+        }
+    }
+
     /**
      * Return the description of this request.
      */
     String getRequestDescritpion();
+
+    /**
+     * Return the url template of this request, see {@link com.github.yongchristophertang.engine.web.request
+     * .RequestBuilder#getRequestTemplate}, or null if it is unknown.
+     */
+    default String getRequestTemplate() {
+        return null;
+    }
+
+    /**
+     * Return whether the response was served from the response cache of the template, either directly or after a
+     * successful conditional revalidation, see {@link WebTemplateBuilder#cache}.
+     */
+    default boolean isFromCache() {
+        return false;
+    }
+
+    /**
+     * Return the size in bytes of the response body as transferred, i.e. before it is decoded from the coding of its
+     * {@code Content-Encoding} header, or -1 if it is unknown.
+     */
+    default long getResponseWireSize() {
+        return -1;
+    }
+
+    /**
+     * Return the size in bytes of the decoded response body, or -1 if it is unknown. It equals
+     * {@link #getResponseWireSize} unless the response is compressed.
+     */
+    default long getResponseContentSize() {
+        return -1;
+    }
+
+    /**
+     * Return the json codec of the template which performed this request.
+     */
+    default JsonCodec getJsonCodec() {
+        return JsonCodec.getDefault();
+    }
 }
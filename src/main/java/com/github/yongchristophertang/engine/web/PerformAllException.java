@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown by {@link WebTemplate#performAll} and {@link WebTemplate#performBatch} when any of the requests fails, either
+ * by an exception or by a default matcher. It aggregates all the failures, which are also added as suppressed
+ * exceptions, and keeps the results of the requests that succeeded.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class PerformAllException extends Exception {
+    private final List<ResultActions> results;
+    private final Map<Integer, Throwable> failures;
+
+    PerformAllException(List<ResultActions> results, Map<Integer, Throwable> failures) {
+        super(failures.size() + " of " + results.size() + " requests failed, at indexes " + failures.keySet());
+        this.results = Collections.unmodifiableList(results);
+        this.failures = Collections.unmodifiableMap(failures);
+        failures.values().forEach(this::addSuppressed);
+    }
+
+    /**
+     * Return the results in the order of the requests, with null for each failed request.
+     */
+    public List<ResultActions> getResults() {
+        return results;
+    }
+
+    /**
+     * Return the failures keyed by the indexes of the failed requests.
+     */
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+}
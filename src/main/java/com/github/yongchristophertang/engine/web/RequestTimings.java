@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import java.time.Duration;
+
+/**
+ * Per-phase durations of a performed request, measured with {@link System#nanoTime()}, so that server slowness can be
+ * told apart from client-side pool starvation. The phases sum up to the total but for the client-side processing of
+ * the request:
+ * <ul>
+ * <li>lease: waiting for a pooled connection, zero if none is leased, e.g. for a cached response</li>
+ * <li>connect: DNS resolution, TCP connect and TLS handshake, zero if a pooled connection is reused</li>
+ * <li>request write: sending the request line, headers and body</li>
+ * <li>first byte: from the request fully written until the response headers are received</li>
+ * <li>body read: reading the response body fully</li>
+ * </ul>
+ * For redirected or retried requests the phases of all the exchanges are summed up. Phases which cannot be observed,
+ * e.g. lease, connect and request write on the non-blocking client, are zero.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class RequestTimings {
+    private final long lease;
+    private final long connect;
+    private final long requestWrite;
+    private final long firstByte;
+    private final long bodyRead;
+    private final long total;
+
+    /**
+     * Build the timings from the durations of each phase in nanoseconds.
+     */
+    public RequestTimings(long lease, long connect, long requestWrite, long firstByte, long bodyRead, long total) {
+        this.lease = lease;
+        this.connect = connect;
+        this.requestWrite = requestWrite;
+        this.firstByte = firstByte;
+        this.bodyRead = bodyRead;
+        this.total = total;
+    }
+
+    /**
+     * Build the timings where only the total duration in nanoseconds is known.
+     */
+    public static RequestTimings ofTotal(long total) {
+        return new RequestTimings(0, 0, 0, 0, 0, total);
+    }
+
+    public Duration getLease() {
+        return Duration.ofNanos(lease);
+    }
+
+    public Duration getConnect() {
+        return Duration.ofNanos(connect);
+    }
+
+    public Duration getRequestWrite() {
+        return Duration.ofNanos(requestWrite);
+    }
+
+    public Duration getFirstByte() {
+        return Duration.ofNanos(firstByte);
+    }
+
+    public Duration getBodyRead() {
+        return Duration.ofNanos(bodyRead);
+    }
+
+    public Duration getTotal() {
+        return Duration.ofNanos(total);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lease=%.3fms, connect=%.3fms, write=%.3fms, firstByte=%.3fms, body=%.3fms, total=%.3fms",
+            lease / 1e6, connect / 1e6, requestWrite / 1e6, firstByte / 1e6, bodyRead / 1e6, total / 1e6);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooling connection manager which records the lease phase, i.e. the wait for a pooled connection, and the connect
+ * phase, including DNS resolution, TCP connect and TLS handshake, into the {@link TimingRecorder} of the execution.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class TimingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        TimingRecorder recorder = TimingRecorder.current();
+        if (recorder == null) {
+            return request;
+        }
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long before = System.nanoTime();
+                try {
+                    return request.get(timeout, tunit);
+                } finally {
+                    recorder.leased(System.nanoTime() - before);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(HttpClientConnection managedConn, HttpRoute route, int connectTimeout, HttpContext context)
+        throws IOException {
+        long before = System.nanoTime();
+        try {
+            super.connect(managedConn, route, connectTimeout, context);
+        } finally {
+            record(context, before);
+        }
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection managedConn, HttpRoute route, HttpContext context) throws IOException {
+        long before = System.nanoTime();
+        try {
+            super.upgrade(managedConn, route, context);
+        } finally {
+            record(context, before);
+        }
+    }
+
+    private static void record(HttpContext context, long before) {
+        TimingRecorder recorder = TimingRecorder.of(context);
+        if (recorder != null) {
+            recorder.connected(System.nanoTime() - before);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Collects the phase durations of one performed request. An instance is put into the {@link HttpContext} of the
+ * execution, where the connection manager, the request executor and the interceptors of the client find it.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class TimingRecorder {
+    static final String ATTRIBUTE = TimingRecorder.class.getName();
+    private static final ThreadLocal<TimingRecorder> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private volatile long lease;
+    private volatile long connect;
+    private volatile long requestWrite;
+    private volatile long firstByte;
+    private volatile long writeEnd;
+    private volatile long headersReceived;
+
+    /**
+     * Return the recorder of the current execution, or null if the request is not performed by {@link WebTemplate}.
+     */
+    static TimingRecorder of(HttpContext context) {
+        Object recorder = context == null ? null : context.getAttribute(ATTRIBUTE);
+        return recorder instanceof TimingRecorder ? (TimingRecorder) recorder : null;
+    }
+
+    /**
+     * Return the recorder attached to the current thread, see {@link #attach}.
+     */
+    static TimingRecorder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attach this recorder to the current thread until {@link #detach}, as the blocking client requests a pooled
+     * connection without the {@link HttpContext} of the execution.
+     */
+    void attach() {
+        CURRENT.set(this);
+    }
+
+    void detach() {
+        CURRENT.remove();
+    }
+
+    void leased(long nanos) {
+        lease += nanos;
+    }
+
+    void connected(long nanos) {
+        connect += nanos;
+    }
+
+    void requestWritten(long nanos) {
+        requestWrite += nanos;
+        writeEnd = System.nanoTime();
+    }
+
+    void headersReceived() {
+        headersReceived = System.nanoTime();
+        if (writeEnd > 0) {
+            firstByte += headersReceived - writeEnd;
+            writeEnd = 0;
+        } else {
+            firstByte = headersReceived - start;
+        }
+    }
+
+    /**
+     * Return the elapsed nanoseconds until the response headers were received, or until now if they have not been.
+     */
+    long getExchangeTime() {
+        return (headersReceived > 0 ? headersReceived : System.nanoTime()) - start;
+    }
+
+    /**
+     * Finish recording once the response body is fully read.
+     */
+    RequestTimings finish() {
+        long end = System.nanoTime();
+        long exchange = getExchangeTime();
+        return new RequestTimings(lease, connect, requestWrite, firstByte, end - start - exchange, end - start);
+    }
+}
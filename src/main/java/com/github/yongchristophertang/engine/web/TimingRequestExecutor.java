@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+
+/**
+ * Request executor which records the request write and first byte phases into the {@link TimingRecorder} of the
+ * execution.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class TimingRequestExecutor extends HttpRequestExecutor {
+
+    @Override
+    protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+        throws IOException, HttpException {
+        TimingRecorder recorder = TimingRecorder.of(context);
+        long before = System.nanoTime();
+        HttpResponse response = super.doSendRequest(request, conn, context);
+        if (recorder != null) {
+            recorder.requestWritten(System.nanoTime() - before);
+        }
+        return response;
+    }
+
+    @Override
+    protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+        throws HttpException, IOException {
+        HttpResponse response = super.doReceiveResponse(request, conn, context);
+        TimingRecorder recorder = TimingRecorder.of(context);
+        if (recorder != null) {
+            recorder.headersReceived();
+        }
+        return response;
+    }
+}
@@ -17,17 +17,62 @@
 package com.github.yongchristophertang.engine.web;
 
 import com.github.yongchristophertang.engine.AssertUtils;
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import com.github.yongchristophertang.engine.web.http.ContentCoding;
+import com.github.yongchristophertang.engine.web.metrics.LatencyRegistry;
 import com.github.yongchristophertang.engine.web.request.RequestBuilder;
+import com.github.yongchristophertang.engine.web.request.Timeouts;
 import com.github.yongchristophertang.engine.web.response.DefaultHttpResult;
 import com.github.yongchristophertang.engine.web.response.DefaultResultActions;
+import com.github.yongchristophertang.engine.web.retry.CircuitBreaker;
+import com.github.yongchristophertang.engine.web.retry.RetryBudget;
+import com.github.yongchristophertang.engine.web.retry.RetryPolicy;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.cache.HttpCacheContext;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * <strong>Main entry point for Http engine support.</strong>
@@ -42,35 +87,642 @@ import java.util.List;
  *     .andExpect(content().contentType("application/json;charset=utf-8"))
  *     .andExpect(jsonPath("$.code", is("10004040"))).andTransform(json().parse("$.code")).andDo(print());
  *
+ * webTemplate.performAsync(get(http://localhost:8080)).thenAccept(actions -> ...);
+ *
+ * webTemplate.performBatch(lookups).forEach(actions -> ...);
+ *
  * </pre>
  *
  * @author Yong Tang
  * @since 0.4
  */
-public final class WebTemplate {
-    private HttpClient httpClient;
+public final class WebTemplate implements Closeable {
+    private static final List<String> PIPELINED_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS");
+    /**
+     * Expiry of a request without deadline, never compared with {@link System#nanoTime} as the difference overflows.
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final IdleConnectionEvictor connectionEvictor;
+    private final Supplier<CloseableHttpAsyncClient> asyncClientFactory;
+    private final Executor asyncExecutor;
+    private final JsonCodec jsonCodec;
+    private final int responseBufferThreshold;
+    private final ExecutorService fanOutExecutor;
+    private final CacheStatistics cacheStatistics = new CacheStatistics();
+    private volatile CloseableHttpAsyncClient asyncClient;
+    private volatile ExecutorService defaultFanOutExecutor;
     private List<ResultMatcher> defaultResultMatchers = new ArrayList<>();
     private List<ResultHandler> defaultResultHandlers = new ArrayList<>();
+    private ContentCoding compression;
+    private long compressionThreshold;
+    private RetryPolicy retryPolicy;
+    private RetryBudget retryBudget;
+    private CircuitBreaker circuitBreaker;
+    private RequestConfig requestConfig = RequestConfig.DEFAULT;
+    private long deadline;
+    private int batchConcurrency = 1;
+    private int pipeliningDepth;
+    private Supplier<CloseableHttpPipeliningClient> pipeliningClientFactory;
+    private volatile CloseableHttpPipeliningClient pipeliningClient;
+    private final Set<HttpHost> nonPipeliningHosts = ConcurrentHashMap.newKeySet();
 
     /**
      * Access via {@link WebTemplateBuilder#build}
      */
-    WebTemplate(RequestConfig config) {
-        httpClient = HttpClients.custom().setDefaultRequestConfig(config).build();
+    WebTemplate(CloseableHttpClient httpClient, PoolingHttpClientConnectionManager connectionManager,
+        IdleConnectionEvictor connectionEvictor, Supplier<CloseableHttpAsyncClient> asyncClientFactory,
+        Executor asyncExecutor, JsonCodec jsonCodec, int responseBufferThreshold, ExecutorService fanOutExecutor) {
+        this.httpClient = httpClient;
+        this.connectionManager = connectionManager;
+        this.connectionEvictor = connectionEvictor;
+        this.asyncClientFactory = asyncClientFactory;
+        this.asyncExecutor = asyncExecutor;
+        this.jsonCodec = jsonCodec;
+        this.responseBufferThreshold = responseBufferThreshold;
+        this.fanOutExecutor = fanOutExecutor;
     }
 
+    /**
+     * Perform the request on the blocking client. Failed attempts are retried as decided by the retry policy of the
+     * template, within its retry budget, and the request fails fast if the circuit of its host is open, see
+     * {@link WebTemplateBuilder#retry} and {@link WebTemplateBuilder#circuitBreaker}. The request is aborted with a
+     * {@link DeadlineExceededException} once its deadline expires, retries included, see
+     * {@link WebTemplateBuilder#deadline}.
+     *
+     * @param builder request builder
+     * @return the {@link ResultActions} of the last attempt
+     */
     public ResultActions perform(RequestBuilder builder) throws Exception {
-        HttpUriRequest httpRequest = (HttpUriRequest) builder.buildRequest();
-
-        long before = System.currentTimeMillis();
-        HttpResponse httpResponse = httpClient.execute(httpRequest);
-        long after = System.currentTimeMillis();
-        HttpResult httpResult = new DefaultHttpResult(httpRequest, httpResponse, after - before, builder.getRequestDescription());
+        HttpUriRequest httpRequest = prepare(builder);
+        long deadline = deadlineOf(builder);
+        ScheduledFuture<?> expiry = deadline > 0 ? Deadlines.schedule(httpRequest::abort, deadline) : null;
+        DefaultHttpResult httpResult;
+        try {
+            httpResult = execute(builder, httpRequest,
+                expiry == null ? NO_DEADLINE : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline));
+        } catch (Exception e) {
+            if (expiry != null && httpRequest.isAborted()) {
+                throw deadlineExceeded(builder, httpRequest, deadline, e);
+            }
+            throw e;
+        } finally {
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+        }
 
         applyDefaultResultMatchersAndHandlers(httpResult);
         return new DefaultResultActions(httpResult);
     }
 
+    /**
+     * Execute the attempts of the request until one is not retried, and buffer its response.
+     *
+     * @param expiresAt {@link System#nanoTime} at which the request is aborted, beyond which no back-off sleeps, or
+     *                  {@link #NO_DEADLINE}
+     */
+    private DefaultHttpResult execute(RequestBuilder builder, HttpUriRequest httpRequest, long expiresAt)
+        throws Exception {
+        HttpHost host = URIUtils.extractHost(httpRequest.getURI());
+        CircuitBreaker breaker = host == null ? null : circuitBreaker;
+        List<RequestTimings> attemptTimings = new ArrayList<>(1);
+        if (retryBudget != null) {
+            retryBudget.onRequest();
+        }
+
+        for (int retries = 0; ; retries++) {
+            if (breaker != null) {
+                breaker.acquire(host);
+            }
+            HttpCacheContext context = HttpCacheContext.create();
+            TimingRecorder recorder = new TimingRecorder();
+            context.setAttribute(TimingRecorder.ATTRIBUTE, recorder);
+            HttpResponse httpResponse;
+            recorder.attach();
+            try {
+                httpResponse = httpClient.execute(httpRequest, context);
+            } catch (Exception e) {
+                attemptTimings.add(recorder.finish());
+                if (breaker != null) {
+                    breaker.onFailure(host);
+                }
+                long delay = httpRequest.isAborted() ? RetryPolicy.NO_RETRY : retryDelay(httpRequest, null, e, retries);
+                if (delay < 0) {
+                    throw e;
+                }
+                backOff(delay, expiresAt);
+                continue;
+            } finally {
+                recorder.detach();
+            }
+            if (breaker != null) {
+                if (httpResponse.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+                    breaker.onFailure(host);
+                } else {
+                    breaker.onSuccess(host);
+                }
+            }
+            long delay = retryDelay(httpRequest, httpResponse, null, retries);
+            if (delay >= 0) {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+                attemptTimings.add(recorder.finish());
+                backOff(delay, expiresAt);
+                continue;
+            }
+
+            DefaultHttpResult httpResult = new DefaultHttpResult(httpRequest, httpResponse,
+                TimeUnit.NANOSECONDS.toMillis(recorder.getExchangeTime()), builder.getRequestDescription(), jsonCodec,
+                responseBufferThreshold);
+            httpResult.bufferResponse();
+            httpResult.setTimings(recorder.finish());
+            attemptTimings.add(httpResult.getTimings());
+            httpResult.setAttemptTimings(attemptTimings);
+            httpResult.setRequestTemplate(builder.getRequestTemplate());
+            httpResult.setFromCache(cacheStatistics.record(context.getCacheResponseStatus()));
+            httpResult.setResponseSizes(ContentDecoding.getWireSize(context), ContentDecoding.getContentSize(context));
+            return httpResult;
+        }
+    }
+
+    /**
+     * Sleep for the retry delay, but not beyond the deadline, where the next attempt is aborted anyway.
+     */
+    private static void backOff(long delay, long expiresAt) throws InterruptedException {
+        if (expiresAt != NO_DEADLINE) {
+            delay = Math.min(delay, TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()));
+        }
+        Thread.sleep(Math.max(delay, 0));
+    }
+
+    /**
+     * Return the delay before retrying an attempt, or {@link RetryPolicy#NO_RETRY} if there is no retry policy, the
+     * request body cannot be sent again, the policy does not retry the attempt or the retry budget is exhausted.
+     */
+    private long retryDelay(HttpUriRequest request, HttpResponse response, Exception exception, int retries) {
+        if (retryPolicy == null || (request instanceof HttpEntityEnclosingRequest &&
+            ((HttpEntityEnclosingRequest) request).getEntity() != null &&
+            !((HttpEntityEnclosingRequest) request).getEntity().isRepeatable())) {
+            return RetryPolicy.NO_RETRY;
+        }
+        long delay = retryPolicy.retryDelay(request, response, exception, retries);
+        if (delay < 0 || (retryBudget != null && !retryBudget.tryRetry())) {
+            return RetryPolicy.NO_RETRY;
+        }
+        return delay;
+    }
+
+    /**
+     * Perform the request on the non-blocking I/O client without holding the calling thread. The response body is
+     * fully buffered before completion. It is then decoded, and the default matchers and handlers are applied, on the
+     * async executor rather than on the I/O threads. Failed attempts are not retried. The request is cancelled and
+     * the future completed with a {@link DeadlineExceededException} once its deadline expires.
+     *
+     * @param builder request builder, the same as the one for {@link #perform}
+     * @return a future completed with the {@link ResultActions}, or exceptionally if the request or any default
+     * matcher fails
+     */
+    public CompletableFuture<ResultActions> performAsync(RequestBuilder builder) {
+        HttpUriRequest httpRequest;
+        try {
+            httpRequest = prepare(builder);
+        } catch (Exception e) {
+            CompletableFuture<ResultActions> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return executeAsync(builder, httpRequest);
+    }
+
+    /**
+     * Execute the prepared request on the non-blocking client, see {@link #performAsync}.
+     */
+    private CompletableFuture<ResultActions> executeAsync(RequestBuilder builder, HttpUriRequest httpRequest) {
+        CompletableFuture<DefaultHttpResult> future = new CompletableFuture<>();
+        HttpClientContext context = HttpClientContext.create();
+        TimingRecorder recorder = new TimingRecorder();
+        context.setAttribute(TimingRecorder.ATTRIBUTE, recorder);
+        Future<HttpResponse> responseFuture = getAsyncClient().execute(httpRequest, context,
+            new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse httpResponse) {
+                try {
+                    ContentDecoding.decode(httpResponse, context);
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                DefaultHttpResult httpResult = new DefaultHttpResult(httpRequest, httpResponse,
+                    TimeUnit.NANOSECONDS.toMillis(recorder.getExchangeTime()), builder.getRequestDescription(),
+                    jsonCodec, responseBufferThreshold);
+                httpResult.setTimings(recorder.finish());
+                httpResult.setRequestTemplate(builder.getRequestTemplate());
+                future.complete(httpResult);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        long deadline = deadlineOf(builder);
+        if (deadline > 0) {
+            ScheduledFuture<?> expiry = Deadlines.schedule(() -> {
+                if (future.completeExceptionally(deadlineExceeded(builder, httpRequest, deadline, null))) {
+                    responseFuture.cancel(true);
+                }
+            }, deadline);
+            future.whenComplete((r, t) -> expiry.cancel(false));
+        }
+
+        CompletableFuture<ResultActions> actions = future.thenApplyAsync(httpResult -> complete(httpResult, context),
+            asyncExecutor);
+        actions.whenComplete((r, t) -> {
+            if (actions.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        return actions;
+    }
+
+    /**
+     * Buffer the response of a non-blocking execution and apply the default matchers and handlers to it.
+     *
+     * @param context context of the execution, holding the response sizes
+     */
+    private ResultActions complete(DefaultHttpResult httpResult, HttpContext context) {
+        try {
+            httpResult.bufferResponse();
+            httpResult.setResponseSizes(ContentDecoding.getWireSize(context), ContentDecoding.getContentSize(context));
+            applyDefaultResultMatchersAndHandlers(httpResult);
+        } catch (Exception | AssertionError e) {
+            throw new CompletionException(e);
+        }
+        return new DefaultResultActions(httpResult);
+    }
+
+    /**
+     * Perform all the requests in parallel with {@link #perform}, each on a task of the fan-out executor, and wait for
+     * them all. The default matchers and handlers are applied to each request. Failures do not stop the others; they
+     * are aggregated once all the requests complete.
+     * The fan-out executor is the one set by {@link WebTemplateBuilder#fanOutExecutor}, or by default an executor
+     * of virtual threads if the runtime supports them, otherwise a pool bounded by the maximum number of pooled
+     * connections.
+     *
+     * @param builders request builders
+     * @return the results in the order of {@code builders}
+     * @throws PerformAllException if any request fails, with all the failures and the results of the others
+     */
+    public List<ResultActions> performAll(Collection<? extends RequestBuilder> builders)
+        throws PerformAllException, InterruptedException {
+        ExecutorService executor = getFanOutExecutor();
+        List<Future<ResultActions>> futures = new ArrayList<>(builders.size());
+        builders.forEach(builder -> futures.add(executor.submit(() -> perform(builder))));
+        return await(futures);
+    }
+
+    /**
+     * Wait for all the futures, cancelling them all if interrupted.
+     *
+     * @return the results in the order of {@code futures}
+     * @throws PerformAllException if any future fails, with all the failures and the results of the others
+     */
+    private static List<ResultActions> await(List<? extends Future<ResultActions>> futures)
+        throws PerformAllException, InterruptedException {
+        List<ResultActions> results = new ArrayList<>(futures.size());
+        Map<Integer, Throwable> failures = new TreeMap<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(null);
+                    failures.put(i, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        if (!failures.isEmpty()) {
+            throw new PerformAllException(results, failures);
+        }
+        return results;
+    }
+
+    /**
+     * Perform a batch of requests over a few persistent connections of the non-blocking client, and wait for them
+     * all. At most {@link WebTemplateBuilder#batchConcurrency} connections are busy at a time, so that a large batch
+     * neither floods the target nor queues up thousands of pending exchanges. The default matchers and handlers are
+     * applied to each request. Failures do not stop the others; they are aggregated once all the requests complete.
+     * <p>
+     * If the template is built with {@link WebTemplateBuilder#pipelining}, the GET, HEAD and OPTIONS requests without
+     * body are grouped by host, and the requests of each chunk of the pipelining depth are pipelined on a single
+     * connection. A host whose pipeline fails, e.g. because it closes the connection after the first response, is not
+     * pipelined any more, and the requests of the failed chunk are sent again one after another, still holding the
+     * connection of the chunk. Only idempotent requests without a body or with a repeatable one are sent again, the
+     * others fail with the failure of the pipeline. All other requests are sent one by one.
+     * <p>
+     * As with {@link #performAsync}, failed requests are not retried. Pipelined requests are bounded by the socket
+     * time-out rather than their deadline, and their timings only hold the total time of their chunk.
+     *
+     * @param builders request builders
+     * @return the results in the order of {@code builders}
+     * @throws PerformAllException if any request fails, with all the failures and the results of the others
+     */
+    public List<ResultActions> performBatch(List<? extends RequestBuilder> builders)
+        throws PerformAllException, InterruptedException {
+        Semaphore connections = new Semaphore(batchConcurrency);
+        List<CompletableFuture<ResultActions>> futures = new ArrayList<>(Collections.nCopies(builders.size(), null));
+        HttpUriRequest[] httpRequests = new HttpUriRequest[builders.size()];
+        Map<HttpHost, List<Integer>> pipelines = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < builders.size(); i++) {
+                try {
+                    httpRequests[i] = prepare(builders.get(i));
+                } catch (Exception e) {
+                    CompletableFuture<ResultActions> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    futures.set(i, failed);
+                    continue;
+                }
+                HttpHost host = pipelinedHost(httpRequests[i]);
+                if (host != null) {
+                    pipelines.computeIfAbsent(host, h -> new ArrayList<>()).add(i);
+                } else {
+                    connections.acquire();
+                    futures.set(i, release(executeAsync(builders.get(i), httpRequests[i]), connections));
+                }
+            }
+
+            for (Map.Entry<HttpHost, List<Integer>> pipeline : pipelines.entrySet()) {
+                List<Integer> indexes = pipeline.getValue();
+                for (int from = 0; from < indexes.size(); from += pipeliningDepth) {
+                    List<Integer> chunk = indexes.subList(from, Math.min(from + pipeliningDepth, indexes.size()));
+                    if (nonPipeliningHosts.contains(pipeline.getKey())) {
+                        for (int i : chunk) {
+                            connections.acquire();
+                            futures.set(i, release(executeAsync(builders.get(i), httpRequests[i]), connections));
+                        }
+                        continue;
+                    }
+                    connections.acquire();
+                    List<CompletableFuture<ResultActions>> actions = executePipelined(pipeline.getKey(),
+                        chunk.stream().map(builders::get).collect(Collectors.toList()),
+                        chunk.stream().map(i -> httpRequests[i]).collect(Collectors.toList()), connections);
+                    for (int i = 0; i < chunk.size(); i++) {
+                        futures.set(chunk.get(i), actions.get(i));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.stream().filter(Objects::nonNull).forEach(f -> f.cancel(true));
+            throw e;
+        }
+        return await(futures);
+    }
+
+    /**
+     * Return the host to pipeline the request to, or null if it is not to be pipelined.
+     */
+    private HttpHost pipelinedHost(HttpUriRequest httpRequest) {
+        if (pipeliningDepth < 1 || !PIPELINED_METHODS.contains(httpRequest.getMethod()) ||
+            (httpRequest instanceof HttpEntityEnclosingRequest &&
+                ((HttpEntityEnclosingRequest) httpRequest).getEntity() != null)) {
+            return null;
+        }
+        HttpHost host = URIUtils.extractHost(httpRequest.getURI());
+        return host == null || nonPipeliningHosts.contains(host) ? null : host;
+    }
+
+    /**
+     * Pipeline the requests on a single connection to {@code host}, which is released once all the responses are
+     * received. If the pipeline fails, the replayable requests are sent again one after another before the connection
+     * is released, so that the batch concurrency still holds.
+     *
+     * @return the futures of the results in the order of {@code httpRequests}
+     */
+    private List<CompletableFuture<ResultActions>> executePipelined(HttpHost host, List<RequestBuilder> builders,
+        List<HttpUriRequest> httpRequests, Semaphore connections) {
+        CompletableFuture<List<HttpResponse>> responses = new CompletableFuture<>();
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        long start = System.nanoTime();
+        AtomicLong elapsed = new AtomicLong();
+        getPipeliningClient().execute(host, new ArrayList<HttpRequest>(httpRequests), context,
+            new FutureCallback<List<HttpResponse>>() {
+                @Override
+                public void completed(List<HttpResponse> result) {
+                    elapsed.set(System.nanoTime() - start);
+                    responses.complete(result);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    responses.completeExceptionally(e);
+                }
+
+                @Override
+                public void cancelled() {
+                    responses.cancel(false);
+                }
+            });
+
+        List<CompletableFuture<ResultActions>> actions = new ArrayList<>(httpRequests.size());
+        for (int i = 0; i < httpRequests.size(); i++) {
+            actions.add(new CompletableFuture<>());
+        }
+        responses.whenComplete((result, failure) -> {
+            if (failure == null) {
+                connections.release();
+                for (int i = 0; i < httpRequests.size(); i++) {
+                    RequestBuilder builder = builders.get(i);
+                    HttpUriRequest httpRequest = httpRequests.get(i);
+                    HttpResponse httpResponse = result.get(i);
+                    forward(CompletableFuture.supplyAsync(() -> completePipelined(builder, httpRequest, httpResponse,
+                        elapsed.get()), asyncExecutor), actions.get(i));
+                }
+                return;
+            }
+            nonPipeliningHosts.add(host);
+            CompletableFuture<?> replayed = CompletableFuture.completedFuture(null);
+            for (int i = 0; i < httpRequests.size(); i++) {
+                RequestBuilder builder = builders.get(i);
+                HttpUriRequest httpRequest = httpRequests.get(i);
+                CompletableFuture<ResultActions> action = actions.get(i);
+                replayed = replayed.thenCompose(v -> {
+                    if (replayable(httpRequest)) {
+                        return executeAsync(builder, httpRequest);
+                    }
+                    CompletableFuture<ResultActions> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(failure);
+                    return failed;
+                }).handle((r, t) -> forward(r, t, action));
+            }
+            replayed.whenComplete((v, t) -> connections.release());
+        });
+        return actions;
+    }
+
+    /**
+     * Return whether a request of a failed pipeline may be sent again, i.e. it is idempotent and its body, if any, is
+     * repeatable, as the server may have processed it already.
+     */
+    private static boolean replayable(HttpUriRequest httpRequest) {
+        if (!PIPELINED_METHODS.contains(httpRequest.getMethod())) {
+            return false;
+        }
+        return !(httpRequest instanceof HttpEntityEnclosingRequest) ||
+            ((HttpEntityEnclosingRequest) httpRequest).getEntity() == null ||
+            ((HttpEntityEnclosingRequest) httpRequest).getEntity().isRepeatable();
+    }
+
+    private static void forward(CompletableFuture<ResultActions> from, CompletableFuture<ResultActions> to) {
+        from.handle((r, t) -> forward(r, t, to));
+    }
+
+    private static Void forward(ResultActions result, Throwable failure, CompletableFuture<ResultActions> to) {
+        if (failure != null) {
+            to.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ?
+                failure.getCause() : failure);
+        } else {
+            to.complete(result);
+        }
+        return null;
+    }
+
+    /**
+     * Decode and buffer a pipelined response, and apply the default matchers and handlers to it.
+     */
+    private ResultActions completePipelined(RequestBuilder builder, HttpUriRequest httpRequest,
+        HttpResponse httpResponse, long elapsed) {
+        HttpClientContext context = HttpClientContext.create();
+        try {
+            ContentDecoding.decode(httpResponse, context);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        DefaultHttpResult httpResult = new DefaultHttpResult(httpRequest, httpResponse,
+            TimeUnit.NANOSECONDS.toMillis(elapsed), builder.getRequestDescription(), jsonCodec,
+            responseBufferThreshold);
+        httpResult.setTimings(RequestTimings.ofTotal(elapsed));
+        httpResult.setRequestTemplate(builder.getRequestTemplate());
+        return complete(httpResult, context);
+    }
+
+    /**
+     * Release a batch connection once the request completes.
+     */
+    private static CompletableFuture<ResultActions> release(CompletableFuture<ResultActions> actions,
+        Semaphore connections) {
+        actions.whenComplete((r, t) -> connections.release());
+        return actions;
+    }
+
+    private ExecutorService getFanOutExecutor() {
+        if (fanOutExecutor != null) {
+            return fanOutExecutor;
+        }
+        if (defaultFanOutExecutor == null) {
+            synchronized (this) {
+                if (defaultFanOutExecutor == null) {
+                    defaultFanOutExecutor = FanOutExecutors.newDefault(connectionManager.getMaxTotal());
+                }
+            }
+        }
+        return defaultFanOutExecutor;
+    }
+
+    /**
+     * The async client and its I/O reactor are only started by the first {@link #performAsync} call.
+     */
+    private CloseableHttpAsyncClient getAsyncClient() {
+        if (asyncClient == null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    CloseableHttpAsyncClient client = asyncClientFactory.get();
+                    client.start();
+                    asyncClient = client;
+                }
+            }
+        }
+        return asyncClient;
+    }
+
+    /**
+     * The pipelining client is only started by the first pipelined {@link #performBatch} call.
+     */
+    private CloseableHttpPipeliningClient getPipeliningClient() {
+        if (pipeliningClient == null) {
+            synchronized (this) {
+                if (pipeliningClient == null) {
+                    CloseableHttpPipeliningClient client = pipeliningClientFactory.get();
+                    client.start();
+                    pipeliningClient = client;
+                }
+            }
+        }
+        return pipeliningClient;
+    }
+
+    /**
+     * Compress the request body as configured by {@link WebTemplateBuilder#compressRequests}, unless it is already
+     * encoded. It is done before the execution rather than by an interceptor, as the non-blocking client takes the
+     * body of a request before its interceptors run.
+     */
+    private HttpUriRequest compress(HttpUriRequest httpRequest) {
+        if (compression != null && httpRequest instanceof HttpEntityEnclosingRequest &&
+            !httpRequest.containsHeader("Content-Encoding")) {
+            HttpEntityEnclosingRequest request = (HttpEntityEnclosingRequest) httpRequest;
+            request.setEntity(compression.compress(request.getEntity(), compressionThreshold));
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Build the request of {@code builder}, compressed and configured with its own time-outs.
+     */
+    private HttpUriRequest prepare(RequestBuilder builder) throws Exception {
+        return configure(compress((HttpUriRequest) builder.buildRequest()), builder.getTimeouts());
+    }
+
+    /**
+     * Override the time-outs of the template by those of the request, keeping any request config of its own.
+     */
+    private HttpUriRequest configure(HttpUriRequest httpRequest, Timeouts timeouts) {
+        if (timeouts.overridesRequestConfig() && httpRequest instanceof HttpRequestBase) {
+            HttpRequestBase request = (HttpRequestBase) httpRequest;
+            request.setConfig(timeouts.applyTo(request.getConfig() != null ? request.getConfig() : requestConfig));
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Return the deadline of the request in milliseconds, that of the template unless overridden, zero for none.
+     */
+    private long deadlineOf(RequestBuilder builder) {
+        long requestDeadline = builder.getTimeouts().getDeadline();
+        return requestDeadline >= 0 ? requestDeadline : deadline;
+    }
+
+    /**
+     * Count the expiration in the default latency registry, and return the exception to fail the request with.
+     */
+    private static DeadlineExceededException deadlineExceeded(RequestBuilder builder, HttpUriRequest httpRequest,
+        long deadline, Throwable cause) {
+        LatencyRegistry.getDefault().recordDeadlineExceeded(httpRequest, builder.getRequestDescription(),
+            builder.getRequestTemplate());
+        return new DeadlineExceededException(httpRequest, deadline, cause);
+    }
+
     private void applyDefaultResultMatchersAndHandlers(HttpResult httpResult) throws Exception {
         for (ResultMatcher matcher : defaultResultMatchers) {
             matcher.match(httpResult);
@@ -81,6 +733,54 @@ public final class WebTemplate {
         }
     }
 
+    /**
+     * Return the live statistics of the whole connection pool, i.e. leased, pending and available connections.
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Return the live statistics of the connection pool for the given host, see
+     * {@link WebTemplateBuilder#maxConnPerHost(HttpHost, int)}.
+     *
+     * @param host target host
+     */
+    public PoolStats getPoolStats(HttpHost host) {
+        return connectionManager.getStats(WebTemplateBuilder.route(host, requestConfig));
+    }
+
+    /**
+     * Return the live counters of the response cache, which stay zero unless the template is built with
+     * {@link WebTemplateBuilder#cache}.
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    /**
+     * Shut down the underlying http clients, the pipelining one included, together with the connection pool, the
+     * eviction thread and the default fan-out executor.
+     */
+    @Override
+    public void close() throws IOException {
+        if (connectionEvictor != null) {
+            connectionEvictor.shutdown();
+        }
+        httpClient.close();
+        synchronized (this) {
+            if (defaultFanOutExecutor != null) {
+                defaultFanOutExecutor.shutdown();
+            }
+            if (asyncClient != null) {
+                asyncClient.close();
+            }
+            if (pipeliningClient != null) {
+                pipeliningClient.close();
+            }
+        }
+    }
+
     /**
      * Expectations to assert after every performed request.
      *
@@ -100,4 +800,59 @@ public final class WebTemplate {
         AssertUtils.notNull(resultHandlers, "resultHandlers is required");
         this.defaultResultHandlers = resultHandlers;
     }
+
+    /**
+     * Compression of request bodies.
+     *
+     * @see WebTemplateBuilder#compressRequests
+     */
+    void setRequestCompression(ContentCoding coding, long threshold) {
+        this.compression = coding;
+        this.compressionThreshold = threshold;
+    }
+
+    /**
+     * Retry policy of failed attempts, with an optional retry budget.
+     *
+     * @see WebTemplateBuilder#retry
+     */
+    void setRetry(RetryPolicy retryPolicy, RetryBudget retryBudget) {
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Per-host circuit breaker.
+     *
+     * @see WebTemplateBuilder#circuitBreaker
+     */
+    void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Request config of the template, which request level time-outs override, and deadline of the requests.
+     *
+     * @see WebTemplateBuilder#deadline
+     */
+    void setTimeouts(RequestConfig requestConfig, long deadline) {
+        AssertUtils.notNull(requestConfig, "requestConfig is required");
+        this.requestConfig = requestConfig;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Maximum number of busy connections of {@link #performBatch}, and pipelining of its requests, disabled if
+     * {@code pipeliningDepth} is zero.
+     *
+     * @see WebTemplateBuilder#batchConcurrency
+     * @see WebTemplateBuilder#pipelining
+     */
+    void setBatch(int concurrency, int pipeliningDepth, Supplier<CloseableHttpPipeliningClient> clientFactory) {
+        AssertUtils.isTrue(concurrency > 0, "concurrency must be positive");
+        AssertUtils.isTrue(pipeliningDepth == 0 || clientFactory != null, "clientFactory is required");
+        this.batchConcurrency = concurrency;
+        this.pipeliningDepth = pipeliningDepth;
+        this.pipeliningClientFactory = clientFactory;
+    }
 }
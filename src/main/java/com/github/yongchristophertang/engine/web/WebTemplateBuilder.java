@@ -16,12 +16,49 @@
 
 package com.github.yongchristophertang.engine.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.yongchristophertang.engine.AssertUtils;
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import com.github.yongchristophertang.engine.web.http.ContentCoding;
+import com.github.yongchristophertang.engine.web.response.DefaultHttpResult;
+import com.github.yongchristophertang.engine.web.retry.CircuitBreaker;
+import com.github.yongchristophertang.engine.web.retry.RetryBudget;
+import com.github.yongchristophertang.engine.web.retry.RetryPolicy;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.conn.UnsupportedSchemeException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.CachingHttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * The main class to build {@link WebTemplate} with different configurations
@@ -30,9 +67,45 @@ import java.util.Objects;
  * @since 0.4
  */
 public class WebTemplateBuilder implements TemplateBuilder {
+    /**
+     * Default maximum number of cached responses, see {@link #cache()}
+     */
+    public static final int DEFAULT_CACHE_MAX_ENTRIES = 1000;
+    /**
+     * Default maximum body size in bytes of a cached response, see {@link #cache()}
+     */
+    public static final long DEFAULT_CACHE_MAX_OBJECT_SIZE = 1024 * 1024;
+    /**
+     * Default maximum number of busy connections of a batch, i.e. the default per route of the connection pools, see
+     * {@link #batchConcurrency}
+     */
+    public static final int DEFAULT_BATCH_CONCURRENCY = 2;
+
     private RequestConfig.Builder builder;
     private List<ResultMatcher> resultMatchers = new ArrayList<>();
     private List<ResultHandler> resultHandlers = new ArrayList<>();
+    private Map<HttpHost, Integer> maxConnPerHost = new HashMap<>();
+    private int maxConnTotal = 0;
+    private int maxConnPerRoute = 0;
+    private int validateAfterInactivity = -1;
+    private boolean evictExpiredConnections = false;
+    private long maxIdleTime = 0;
+    private int ioThreadCount = 0;
+    private Executor asyncExecutor = ForkJoinPool.commonPool();
+    private JsonCodec jsonCodec = JsonCodec.getDefault();
+    private int responseBufferThreshold = DefaultHttpResult.DEFAULT_BUFFER_THRESHOLD;
+    private ExecutorService fanOutExecutor;
+    private int cacheMaxEntries = 0;
+    private long cacheMaxObjectSize = 0;
+    private File cacheDirectory;
+    private ContentCoding compression;
+    private long compressionThreshold;
+    private RetryPolicy retryPolicy;
+    private RetryBudget retryBudget;
+    private CircuitBreaker circuitBreaker;
+    private long deadline = 0;
+    private int batchConcurrency = 0;
+    private int pipeliningDepth = 0;
 
     /**
      * Accessed via {@link WebTemplateBuilder}
@@ -70,10 +143,47 @@ public class WebTemplateBuilder implements TemplateBuilder {
     }
 
     /**
-     * Set cookie policy to {@link org.apache.http.client.config.CookieSpecs#BEST_MATCH}
+     * Set socket time-out, i.e. the maximum inactivity between two data packets, zero for none
+     *
+     * @param timeOut timeOut length in milliseconds
+     */
+    public WebTemplateBuilder socketTimeOut(int timeOut) {
+        builder.setSocketTimeout(timeOut);
+        return this;
+    }
+
+    /**
+     * Set time-out to lease a connection from the pool, zero for none
+     *
+     * @param timeOut timeOut length in milliseconds
+     */
+    public WebTemplateBuilder connectionRequestTimeOut(int timeOut) {
+        builder.setConnectionRequestTimeout(timeOut);
+        return this;
+    }
+
+    /**
+     * Set a hard deadline on each request, after which the request is aborted wherever it is, connecting, sending,
+     * waiting, reading the response or backing off between retries, and fails with a
+     * {@link DeadlineExceededException}. Expirations are counted in the
+     * {@link com.github.yongchristophertang.engine.web.metrics.LatencyRegistry#getDefault() default latency registry}.
+     * Requests can override it, see
+     * {@link com.github.yongchristophertang.engine.web.request.HttpRequestBuilders#deadline}.
+     *
+     * @param deadline deadline of a request, zero for none
+     * @param unit     time unit of {@code deadline}
+     */
+    public WebTemplateBuilder deadline(long deadline, TimeUnit unit) {
+        AssertUtils.notNull(unit, "unit must not be null");
+        this.deadline = unit.toMillis(deadline);
+        return this;
+    }
+
+    /**
+     * Set cookie policy to {@link org.apache.http.client.config.CookieSpecs#DEFAULT}
      */
     public WebTemplateBuilder setCookie() {
-        builder.setCookieSpec(CookieSpecs.BEST_MATCH);
+        builder.setCookieSpec(CookieSpecs.DEFAULT);
         return this;
     }
 
@@ -85,6 +195,269 @@ public class WebTemplateBuilder implements TemplateBuilder {
         return this;
     }
 
+    /**
+     * Set the maximum number of pooled connections in total, the stock value is 20.
+     *
+     * @param max maximum number of connections
+     */
+    public WebTemplateBuilder maxConnTotal(int max) {
+        maxConnTotal = max;
+        return this;
+    }
+
+    /**
+     * Set the default maximum number of pooled connections per route, the stock value is 2.
+     *
+     * @param max maximum number of connections for each route
+     */
+    public WebTemplateBuilder maxConnPerRoute(int max) {
+        maxConnPerRoute = max;
+        return this;
+    }
+
+    /**
+     * Override the maximum number of pooled connections for a specific host, for both the blocking and the async
+     * requests. The scheme of {@code host} tells https hosts apart, and its default port is used if none is given.
+     *
+     * @param host target host
+     * @param max  maximum number of connections for this host
+     */
+    public WebTemplateBuilder maxConnPerHost(HttpHost host, int max) {
+        AssertUtils.notNull(host, "host must not be null");
+        maxConnPerHost.put(host, max);
+        return this;
+    }
+
+    /**
+     * Override the maximum number of pooled connections for a specific plain http host.
+     *
+     * @param hostName target host name
+     * @param port     target port
+     * @param max      maximum number of connections for this host
+     */
+    public WebTemplateBuilder maxConnPerHost(String hostName, int port, int max) {
+        return maxConnPerHost(new HttpHost(hostName, port), max);
+    }
+
+    /**
+     * Re-validate pooled connections which have been inactive for longer than the given period before leasing them.
+     * The async client cannot validate a pooled connection, so it does not reuse such connections at all.
+     *
+     * @param millis period of inactivity in milliseconds
+     */
+    public WebTemplateBuilder validateAfterInactivity(int millis) {
+        validateAfterInactivity = millis;
+        return this;
+    }
+
+    /**
+     * Close expired connections in the pool with a background thread. Only the pool of the blocking client is evicted;
+     * the I/O reactor of the non-blocking client already closes its pooled connections once the server does.
+     */
+    public WebTemplateBuilder evictExpiredConnections() {
+        evictExpiredConnections = true;
+        return this;
+    }
+
+    /**
+     * Close expired connections and connections idle for longer than {@code maxIdleTime} in the pool of the blocking
+     * client with a background thread, see {@link #evictExpiredConnections}.
+     *
+     * @param maxIdleTime maximum idle time of a pooled connection
+     * @param unit        time unit of {@code maxIdleTime}
+     */
+    public WebTemplateBuilder evictIdleConnections(long maxIdleTime, TimeUnit unit) {
+        AssertUtils.notNull(unit, "unit must not be null");
+        this.maxIdleTime = unit.toMillis(maxIdleTime);
+        return evictExpiredConnections();
+    }
+
+    /**
+     * Set the number of I/O dispatcher threads of the non-blocking client behind {@link WebTemplate#performAsync},
+     * the default is the number of available processors.
+     *
+     * @param count number of I/O threads
+     */
+    public WebTemplateBuilder ioThreadCount(int count) {
+        ioThreadCount = count;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of connections busy at a time in {@link WebTemplate#performBatch}, the default is the
+     * maximum number of connections per route if set, otherwise {@value #DEFAULT_BATCH_CONCURRENCY}.
+     *
+     * @param concurrency maximum number of busy connections
+     */
+    public WebTemplateBuilder batchConcurrency(int concurrency) {
+        batchConcurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Pipeline the GET, HEAD and OPTIONS requests of {@link WebTemplate#performBatch} with HTTP/1.1 pipelining, at
+     * most {@code depth} requests on a connection before their responses. It suits hosts serving many tiny requests,
+     * where connection setup and round trips dominate. The pipelining client does not keep its connections alive
+     * from one pipeline to the next, so {@code depth} should be large enough to amortize the connection setup. Hosts
+     * which do not support pipelining fall back to requests one by one.
+     *
+     * @param depth maximum number of requests in a pipeline
+     */
+    public WebTemplateBuilder pipelining(int depth) {
+        pipeliningDepth = depth;
+        return this;
+    }
+
+    /**
+     * Set the executor on which {@link WebTemplate#performAsync} applies the default matchers and handlers, the
+     * default is {@link ForkJoinPool#commonPool()}.
+     *
+     * @param executor executor for completion stages
+     */
+    public WebTemplateBuilder asyncExecutor(Executor executor) {
+        AssertUtils.notNull(executor, "executor must not be null");
+        asyncExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Set the executor on which {@link WebTemplate#performAll} runs the requests. It is not shut down by the template.
+     * By default, the template uses virtual threads if the runtime supports them, otherwise a pool bounded by the
+     * maximum number of pooled connections.
+     *
+     * @param executor executor for parallel requests
+     */
+    public WebTemplateBuilder fanOutExecutor(ExecutorService executor) {
+        AssertUtils.notNull(executor, "executor must not be null");
+        fanOutExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Use a custom {@link ObjectMapper} for json transformations and printing of the built {@link WebTemplate}, the
+     * mapper must be fully configured before it is passed in.
+     *
+     * @param mapper json object mapper
+     * @see JsonCodec#defaultMapper()
+     */
+    public WebTemplateBuilder objectMapper(ObjectMapper mapper) {
+        jsonCodec = new JsonCodec(mapper);
+        return this;
+    }
+
+    /**
+     * Set the size in bytes above which a response body is spilled to a temporary file instead of being buffered on
+     * the heap, the default is {@link DefaultHttpResult#DEFAULT_BUFFER_THRESHOLD}. Read spilled bodies with
+     * {@link HttpResult#getResponseStream} or streaming transformers to keep them off the heap entirely.
+     *
+     * @param bytes threshold in bytes
+     */
+    public WebTemplateBuilder responseBufferThreshold(int bytes) {
+        responseBufferThreshold = bytes;
+        return this;
+    }
+
+    /**
+     * Compress the bodies of all the requests with {@code coding} if they are at least {@code threshold} bytes long,
+     * unless they are already encoded, e.g. by {@link com.github.yongchristophertang.engine.web.request
+     * .HttpRequestBuilders#compress}. Responses are always decoded regardless of this option.
+     *
+     * @param coding    content coding to compress with
+     * @param threshold minimum length in bytes of a body to compress
+     */
+    public WebTemplateBuilder compressRequests(ContentCoding coding, long threshold) {
+        AssertUtils.notNull(coding, "coding must not be null");
+        compression = coding;
+        compressionThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Retry failed attempts of {@link WebTemplate#perform} as decided by {@code policy}, e.g.
+     * {@link RetryPolicy#defaults()}. Requests with a body which cannot be sent again are never retried. The retries
+     * replace the automatic retries of the underlying client.
+     *
+     * @param policy retry policy
+     */
+    public WebTemplateBuilder retry(RetryPolicy policy) {
+        AssertUtils.notNull(policy, "policy must not be null");
+        retryPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Retry failed attempts of {@link WebTemplate#perform} as decided by {@code policy}, as long as {@code budget}
+     * allows, which is shared by all the requests of the built template.
+     *
+     * @param policy retry policy
+     * @param budget retry budget
+     */
+    public WebTemplateBuilder retry(RetryPolicy policy, RetryBudget budget) {
+        AssertUtils.notNull(budget, "budget must not be null");
+        retryBudget = budget;
+        return retry(policy);
+    }
+
+    /**
+     * Fail the requests of {@link WebTemplate#perform} fast with a
+     * {@link com.github.yongchristophertang.engine.web.retry.CircuitBreakerOpenException} while their host is down.
+     * Only {@link WebTemplate#perform} and {@link WebTemplate#performAll} go through the breaker;
+     * {@link WebTemplate#performAsync} and {@link WebTemplate#performBatch} bypass it, neither failing fast nor
+     * reporting their outcomes to it.
+     *
+     * @param breaker per-host circuit breaker, which may be shared by templates
+     */
+    public WebTemplateBuilder circuitBreaker(CircuitBreaker breaker) {
+        AssertUtils.notNull(breaker, "breaker must not be null");
+        circuitBreaker = breaker;
+        return this;
+    }
+
+    /**
+     * Cache the responses of {@link WebTemplate#perform} in memory, with {@link #DEFAULT_CACHE_MAX_ENTRIES} entries of
+     * at most {@link #DEFAULT_CACHE_MAX_OBJECT_SIZE} bytes each.
+     *
+     * @see #cache(int, long)
+     */
+    public WebTemplateBuilder cache() {
+        return cache(DEFAULT_CACHE_MAX_ENTRIES, DEFAULT_CACHE_MAX_OBJECT_SIZE);
+    }
+
+    /**
+     * Cache the responses of {@link WebTemplate#perform} as a private HTTP/1.1 cache, e.g. for reference data fetched
+     * over and over again by a suite. Only responses which are explicitly cacheable by their {@code Cache-Control} or
+     * {@code Expires} headers are stored, stale entries are revalidated with their {@code ETag} or
+     * {@code Last-Modified} validators, and the least recently used entries are evicted once the cache is full.
+     * Requests performed with {@link WebTemplate#performAsync} always bypass the cache.
+     *
+     * @param maxEntries    maximum number of cached responses
+     * @param maxObjectSize maximum body size in bytes of a cached response, larger ones are never cached
+     * @see HttpResult#isFromCache()
+     * @see WebTemplate#getCacheStatistics()
+     */
+    public WebTemplateBuilder cache(int maxEntries, long maxObjectSize) {
+        cacheMaxEntries = maxEntries;
+        cacheMaxObjectSize = maxObjectSize;
+        return this;
+    }
+
+    /**
+     * Keep the bodies of cached responses as files in {@code directory} instead of on the heap, enabling the cache with
+     * the default limits if it is not yet enabled. The cache entries are still indexed in memory and the files are
+     * deleted when the template is closed, hence the cache does not outlive the template.
+     *
+     * @param directory existing directory for cached bodies
+     * @see #cache(int, long)
+     */
+    public WebTemplateBuilder cacheDirectory(File directory) {
+        AssertUtils.notNull(directory, "directory must not be null");
+        cacheDirectory = directory;
+        if (cacheMaxEntries <= 0) {
+            cache();
+        }
+        return this;
+    }
+
     /**
      * Set global default {@link ResultMatcher} for built {@link WebTemplate}.
      */
@@ -108,9 +481,112 @@ public class WebTemplateBuilder implements TemplateBuilder {
      */
     @Override
     public WebTemplate build() {
-        WebTemplate webTemplate = new WebTemplate(builder.build());
+        PoolingHttpClientConnectionManager connectionManager = new TimingConnectionManager();
+        if (maxConnTotal > 0) {
+            connectionManager.setMaxTotal(maxConnTotal);
+        }
+        if (maxConnPerRoute > 0) {
+            connectionManager.setDefaultMaxPerRoute(maxConnPerRoute);
+        }
+        RequestConfig config = builder.build();
+        Map<HttpRoute, Integer> maxConnPerRoutes = new HashMap<>();
+        maxConnPerHost.forEach((host, max) -> maxConnPerRoutes.put(route(host, config), max));
+        maxConnPerRoutes.forEach(connectionManager::setMaxPerRoute);
+        if (validateAfterInactivity >= 0) {
+            connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+        }
+
+        IdleConnectionEvictor evictor = null;
+        if (evictExpiredConnections) {
+            evictor = maxIdleTime > 0 ?
+                new IdleConnectionEvictor(connectionManager, maxIdleTime, TimeUnit.MILLISECONDS) :
+                new IdleConnectionEvictor(connectionManager, 5, TimeUnit.SECONDS, 0, TimeUnit.MILLISECONDS);
+            evictor.start();
+        }
+
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setIoThreadCount(ioThreadCount > 0 ? ioThreadCount : Runtime.getRuntime().availableProcessors()).build();
+        HttpAsyncClientBuilder asyncBuilder = HttpAsyncClients.custom().setDefaultRequestConfig(config)
+            .setDefaultIOReactorConfig(ioReactorConfig)
+            .addInterceptorFirst((HttpResponseInterceptor) (response, context) -> Optional
+                .ofNullable(TimingRecorder.of(context)).ifPresent(TimingRecorder::headersReceived))
+            .addInterceptorLast(new RequestAcceptEncoding(new ArrayList<>(ContentDecoding.DECODERS.keySet())));
+        if (validateAfterInactivity > 0) {
+            asyncBuilder.setKeepAliveStrategy((response, context) -> {
+                long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive < 0 ? validateAfterInactivity : Math.min(keepAlive, validateAfterInactivity);
+            });
+        }
+        Supplier<CloseableHttpAsyncClient> asyncClientFactory = () -> {
+            try {
+                PoolingNHttpClientConnectionManager asyncConnectionManager =
+                    new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+                if (maxConnTotal > 0) {
+                    asyncConnectionManager.setMaxTotal(maxConnTotal);
+                }
+                if (maxConnPerRoute > 0) {
+                    asyncConnectionManager.setDefaultMaxPerRoute(maxConnPerRoute);
+                }
+                maxConnPerRoutes.forEach(asyncConnectionManager::setMaxPerRoute);
+                return asyncBuilder.setConnectionManager(asyncConnectionManager).build();
+            } catch (IOReactorException e) {
+                throw new IllegalStateException("Cannot start the I/O reactor of the async client", e);
+            }
+        };
+
+        HttpClientBuilder clientBuilder = cacheMaxEntries > 0 ? CachingHttpClients.custom().setCacheConfig(
+            CacheConfig.custom().setMaxCacheEntries(cacheMaxEntries).setMaxObjectSize(cacheMaxObjectSize)
+                .setSharedCache(false).setHeuristicCachingEnabled(false).build()).setCacheDir(cacheDirectory) :
+            HttpClients.custom();
+        clientBuilder.setContentDecoderRegistry(ContentDecoding.DECODERS).addInterceptorFirst(ContentDecoding.WIRE)
+            .addInterceptorLast(ContentDecoding.CONTENT);
+        if (retryPolicy != null) {
+            clientBuilder.disableAutomaticRetries();
+        }
+        WebTemplate webTemplate = new WebTemplate(
+            clientBuilder.setDefaultRequestConfig(config).setConnectionManager(connectionManager)
+                .setRequestExecutor(new TimingRequestExecutor()).build(),
+            connectionManager, evictor, asyncClientFactory, asyncExecutor, jsonCodec,
+            responseBufferThreshold, fanOutExecutor);
         webTemplate.setDefaultResultHandlers(resultHandlers);
         webTemplate.setDefaultResultMatchers(resultMatchers);
+        if (compression != null) {
+            webTemplate.setRequestCompression(compression, compressionThreshold);
+        }
+        webTemplate.setRetry(retryPolicy, retryBudget);
+        webTemplate.setCircuitBreaker(circuitBreaker);
+        webTemplate.setTimeouts(config, deadline);
+        int concurrency = batchConcurrency > 0 ? batchConcurrency :
+            maxConnPerRoute > 0 ? maxConnPerRoute : DEFAULT_BATCH_CONCURRENCY;
+        webTemplate.setBatch(concurrency, pipeliningDepth, pipeliningDepth == 0 ? null : () -> {
+            try {
+                PoolingNHttpClientConnectionManager pipeliningManager =
+                    new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+                pipeliningManager.setMaxTotal(concurrency);
+                pipeliningManager.setDefaultMaxPerRoute(concurrency);
+                return HttpAsyncClients.createPipelining(pipeliningManager, false);
+            } catch (IOReactorException e) {
+                throw new IllegalStateException("Cannot start the I/O reactor of the pipelining client", e);
+            }
+        });
         return webTemplate;
     }
+
+    /**
+     * Return the route to {@code host} the same way as the default route planner of the clients does.
+     */
+    static HttpRoute route(HttpHost host, RequestConfig config) {
+        HttpHost target = host;
+        if (host.getPort() <= 0) {
+            try {
+                target = new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host),
+                    host.getSchemeName());
+            } catch (UnsupportedSchemeException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+        boolean secure = "https".equalsIgnoreCase(target.getSchemeName());
+        return config.getProxy() == null ? new HttpRoute(target, config.getLocalAddress(), secure) :
+            new HttpRoute(target, config.getLocalAddress(), config.getProxy(), secure);
+    }
 }
@@ -19,7 +19,10 @@ package com.github.yongchristophertang.engine.web.annotations;
 import java.lang.annotation.*;
 
 /**
- * Binds the value of a multipart form body file to a resource method parameter
+ * Binds the value of a multipart form body file to a resource method parameter. The parameter is either a
+ * {@link java.nio.file.Path}, a {@link java.io.File}, an {@link java.io.InputStream}, a path string where multiple
+ * paths are separated by commas, or a collection of them. Files and streams are sent chunk by chunk, never buffered
+ * as a whole.
  *
  * @author Yong Tang
  * @since 0.4
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Overrides the time-outs of the template for an api, all in milliseconds. A negative value keeps the one of the
+ * template, while zero means no time-out.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Timeout {
+    /**
+     * Time-out to establish a connection.
+     */
+    int connect() default -1;
+
+    /**
+     * Time-out of inactivity between two data packets.
+     */
+    int socket() default -1;
+
+    /**
+     * Time-out to lease a connection from the pool.
+     */
+    int connectionRequest() default -1;
+
+    /**
+     * Hard deadline of the whole request, after which it is aborted.
+     */
+    long deadline() default -1;
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Multipart body of the remaining bytes of a {@link ByteBuffer}, typically a memory-mapped region of a file, which is
+ * written out chunk by chunk without copying it into a heap array as a whole. The buffer position is left untouched,
+ * hence the body is repeatable.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class ByteBufferBody extends AbstractContentBody {
+    private final ByteBuffer buffer;
+    private final String fileName;
+
+    ByteBufferBody(ByteBuffer buffer, ContentType contentType, String fileName) {
+        super(contentType);
+        this.buffer = buffer;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        ByteBuffer source = buffer.duplicate();
+        WritableByteChannel target = Channels.newChannel(out);
+        while (source.hasRemaining()) {
+            target.write(source);
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Request body compressed on the fly with a {@link ContentCoding}. The wrapped body is read and compressed chunk by
+ * chunk as the compressed content is pulled, by the blocking client through {@link #writeTo} as well as by the
+ * non-blocking one through {@link #getContent}, so that large bodies are never held in memory as a whole.
+ * The length of the compressed content is unknown, hence it is sent chunked.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class CompressingEntity extends HttpEntityWrapper {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final ContentCoding coding;
+
+    public CompressingEntity(HttpEntity wrappedEntity, ContentCoding coding) {
+        super(wrappedEntity);
+        this.coding = coding;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader("Content-Encoding", coding.getToken());
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        InputStream in = wrappedEntity.getContent();
+        return coding == ContentCoding.GZIP ? gzip(in) : deflate(in, new Deflater(Deflater.DEFAULT_COMPRESSION));
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (InputStream in = getContent()) {
+            ByteStreams.copy(in, out);
+        }
+    }
+
+    /**
+     * Frame raw deflated content with the gzip header and trailer, where the trailer is only built once the content is
+     * fully read.
+     */
+    private static InputStream gzip(InputStream in) {
+        CRC32 crc = new CRC32();
+        CountingInputStream counting = new CountingInputStream(new CheckedInputStream(in, crc));
+        InputStream deflated = deflate(counting, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int part = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return part < 3;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                switch (part++) {
+                    case 0:
+                        return new ByteArrayInputStream(GZIP_HEADER);
+                    case 1:
+                        return deflated;
+                    default:
+                        long checksum = crc.getValue();
+                        long size = counting.getCount();
+                        return new ByteArrayInputStream(new byte[]{
+                            (byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+                            (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)});
+                }
+            }
+        });
+    }
+
+    private static InputStream deflate(InputStream in, Deflater deflater) {
+        return new DeflaterInputStream(in, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+}
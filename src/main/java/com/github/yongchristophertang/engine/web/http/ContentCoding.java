@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import org.apache.http.HttpEntity;
+
+/**
+ * Content codings to compress request bodies with, see {@link CompressingEntity}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public enum ContentCoding {
+
+    GZIP("gzip"), DEFLATE("deflate");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Return the token of this coding used in the {@code Content-Encoding} header.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Compress {@code entity} with this coding if it is worth it, that is the entity is not encoded yet and its length
+     * is either unknown or at least {@code threshold} bytes.
+     *
+     * @param entity    request body, may be null
+     * @param threshold minimum length in bytes of a body to compress
+     * @return the compressed entity, or {@code entity} itself if it is not compressed
+     */
+    public HttpEntity compress(HttpEntity entity, long threshold) {
+        if (entity == null || entity.getContentEncoding() != null ||
+            (entity.getContentLength() >= 0 && entity.getContentLength() < threshold)) {
+            return entity;
+        }
+        return new CompressingEntity(entity, this);
+    }
+}
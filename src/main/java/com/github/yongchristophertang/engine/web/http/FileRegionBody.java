@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Multipart body of a region of a file, which is transferred from a {@link FileChannel} chunk by chunk without
+ * buffering the file on the heap. The file is opened on each writing, hence the body is repeatable.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class FileRegionBody extends AbstractContentBody {
+    private static final long CHUNK_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long position;
+    private final long length;
+    private final String fileName;
+
+    FileRegionBody(Path path, long position, long length, ContentType contentType, String fileName) {
+        super(contentType);
+        this.path = path;
+        this.position = position;
+        this.length = length;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long current = position;
+            long end = position + length;
+            while (current < end) {
+                long transferred = channel.transferTo(current, Math.min(CHUNK_SIZE, end - current), target);
+                if (transferred <= 0) {
+                    throw new EOFException("Unexpected end of file " + path + " at " + current);
+                }
+                current += transferred;
+            }
+        }
+    }
+
+    @Override
+    public String getFilename() {
+        return fileName;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+}
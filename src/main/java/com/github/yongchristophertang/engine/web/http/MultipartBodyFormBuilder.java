@@ -21,13 +21,25 @@ import com.github.yongchristophertang.engine.web.request.HttpRequestBuilders;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.InputStreamBody;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Optional;
 
 /**
  * Builder to construct a multipart entity
+ * <p>
+ * Files, regions of files, buffers and streams are all written out chunk by chunk when the request is sent, so
+ * uploading a large file does not require a heap of its size. If the length of any part is unknown, e.g. a part of
+ * {@link #stream}, the whole body is sent with chunked transfer encoding.
  *
  * @author Yong Tang
  * @since 0.4
@@ -75,6 +87,129 @@ public class MultipartBodyFormBuilder implements FormBuilder {
         return this;
     }
 
+    /**
+     * Add an attaching file with a content type in body of {@link HttpRequestBuilders}
+     *
+     * @param name        attached file name
+     * @param filePath    local file path
+     * @param contentType content type of the part
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder file(String name, String filePath, ContentType contentType) {
+        AssertUtils.notNull(name, "File name must not be null.");
+        Optional.ofNullable(filePath).ifPresent(f -> file(name, new File(f).toPath(), contentType));
+        return this;
+    }
+
+    /**
+     * Add an attaching file in body of {@link HttpRequestBuilders}, with the content type
+     * {@link ContentType#DEFAULT_BINARY}
+     *
+     * @param name attached file name
+     * @param path local file path
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder file(String name, Path path) {
+        return file(name, path, ContentType.DEFAULT_BINARY);
+    }
+
+    /**
+     * Add an attaching file with a content type in body of {@link HttpRequestBuilders}
+     *
+     * @param name        attached file name
+     * @param path        local file path
+     * @param contentType content type of the part
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder file(String name, Path path, ContentType contentType) {
+        AssertUtils.notNull(path, "File path must not be null.");
+        try {
+            return file(name, path, 0, Files.size(path), contentType);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read file " + path, e);
+        }
+    }
+
+    /**
+     * Add a region of a file in body of {@link HttpRequestBuilders}, which is transferred from a file channel when
+     * the request is sent
+     *
+     * @param name        attached file name
+     * @param path        local file path
+     * @param position    position in the file where the region starts
+     * @param length      length of the region in bytes
+     * @param contentType content type of the part
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder file(String name, Path path, long position, long length,
+        ContentType contentType) {
+        AssertUtils.notNull(name, "File name must not be null.");
+        AssertUtils.notNull(path, "File path must not be null.");
+        AssertUtils.isTrue(position >= 0 && length >= 0, "File region must not be negative.");
+        builder.addPart(name, new FileRegionBody(path, position, length, contentType, fileName(path)));
+        return this;
+    }
+
+    /**
+     * Add a memory-mapped region of a file in body of {@link HttpRequestBuilders}. The region is mapped right away,
+     * so that the file can be read by the operating system ahead of the sending, and it is limited to 2GB by the
+     * platform.
+     *
+     * @param name        attached file name
+     * @param path        local file path
+     * @param position    position in the file where the region starts
+     * @param length      length of the region in bytes
+     * @param contentType content type of the part
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder mapped(String name, Path path, long position, long length,
+        ContentType contentType) {
+        AssertUtils.notNull(path, "File path must not be null.");
+        AssertUtils.isTrue(length <= Integer.MAX_VALUE, "Mapped region must not be larger than 2GB.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return content(name, channel.map(FileChannel.MapMode.READ_ONLY, position, length), contentType,
+                fileName(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot map file " + path, e);
+        }
+    }
+
+    /**
+     * Add the remaining bytes of a buffer in body of {@link HttpRequestBuilders}, e.g. a memory-mapped or a direct
+     * buffer, without copying them into the heap
+     *
+     * @param name        content name
+     * @param buffer      content buffer, its position is not changed
+     * @param contentType content type of the part
+     * @param fileName    file name of the part, may be null
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder content(String name, ByteBuffer buffer, ContentType contentType,
+        String fileName) {
+        AssertUtils.notNull(name, "Content name must not be null.");
+        AssertUtils.notNull(buffer, "Content buffer must not be null.");
+        builder.addPart(name, new ByteBufferBody(buffer, contentType, fileName));
+        return this;
+    }
+
+    /**
+     * Add a stream of unknown length in body of {@link HttpRequestBuilders}, which makes the whole body sent with
+     * chunked transfer encoding. The stream is read once when the request is sent, hence the request cannot be
+     * retried, and it is closed afterwards.
+     *
+     * @param name        content name
+     * @param in          content stream
+     * @param contentType content type of the part
+     * @param fileName    file name of the part, may be null
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder stream(String name, InputStream in, ContentType contentType, String fileName) {
+        AssertUtils.notNull(name, "Content name must not be null.");
+        AssertUtils.notNull(in, "Content stream must not be null.");
+        builder.addPart(name, new InputStreamBody(in, contentType, fileName));
+        return this;
+    }
+
     /**
      * Add a bytes content in body of {@link HttpRequestBuilders}
      *
@@ -87,6 +222,24 @@ public class MultipartBodyFormBuilder implements FormBuilder {
         return this;
     }
 
+    /**
+     * Add a bytes content with a content type in body of {@link HttpRequestBuilders}
+     *
+     * @param name        content name
+     * @param content     bytes content
+     * @param contentType content type of the part
+     * @param fileName    file name of the part, may be null
+     * @return {@link MultipartBodyFormBuilder}
+     */
+    public MultipartBodyFormBuilder content(String name, byte[] content, ContentType contentType, String fileName) {
+        builder.addBinaryBody(name, content, contentType, fileName);
+        return this;
+    }
+
+    private static String fileName(Path path) {
+        return Optional.ofNullable(path.getFileName()).map(Path::toString).orElse(null);
+    }
+
     /**
      * Create a {@link BodyForm} instance
      *
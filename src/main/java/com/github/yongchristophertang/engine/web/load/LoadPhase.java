@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.load;
+
+/**
+ * Phases of a load run, in the order they are run.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public enum LoadPhase {
+    /**
+     * Runs at a tenth of the target load, to warm up the client, the connections and the service under test.
+     */
+    WARM_UP,
+    /**
+     * Increases the load linearly from the warm-up load to the target load.
+     */
+    RAMP_UP,
+    /**
+     * Runs at the target load.
+     */
+    STEADY_STATE
+}
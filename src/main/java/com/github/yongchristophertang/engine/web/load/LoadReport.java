@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.load;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Report of a load run, with a {@link PhaseReport} for each phase which was run.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class LoadReport {
+    private final Map<LoadPhase, PhaseReport> phases;
+    private final long unfinished;
+
+    LoadReport(Map<LoadPhase, PhaseReport> phases, long unfinished) {
+        this.phases = Collections.unmodifiableMap(new EnumMap<>(phases));
+        this.unfinished = unfinished;
+    }
+
+    public Map<LoadPhase, PhaseReport> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Return the report of the steady state phase, which reflects the target load.
+     */
+    public PhaseReport getSteadyState() {
+        return phases.get(LoadPhase.STEADY_STATE);
+    }
+
+    /**
+     * Return the number of requests still in flight when the run stopped waiting for them.
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%-13s%9s%10s%10s%10s%10s%10s%10s%10s%10s%n", "phase",
+            "duration", "requests", "rps", "errors", "p50", "p90", "p99", "p999", "max"));
+        phases.values().forEach(p -> table.append(p).append(System.lineSeparator()));
+        return table.append("(latencies in milliseconds, unfinished requests: ").append(unfinished).append(")")
+            .toString();
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.load;
+
+import com.github.yongchristophertang.engine.web.ResultActions;
+import com.github.yongchristophertang.engine.web.WebTemplate;
+import com.github.yongchristophertang.engine.web.metrics.LatencySummary;
+import com.github.yongchristophertang.engine.web.request.RequestBuilder;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+
+/**
+ * Load runner which drives requests through {@link WebTemplate#performAsync}, reusing the request builders and api
+ * interfaces of functional tests, e.g.
+ * <pre>
+ * DemoAPI api = TestRequestBuilders.api(DemoAPI.class);
+ * LoadReport report = LoadRunner.of(webTemplate, () -&gt; api.getItem("1")).rate(200)
+ *     .warmUp(10, TimeUnit.SECONDS).rampUp(30, TimeUnit.SECONDS).duration(60, TimeUnit.SECONDS).run();
+ * </pre>
+ * With a target {@link #rate}, requests are scheduled by an open model: each request has an intended start time which
+ * does not depend on the completion of earlier ones, and its latency is measured from that time. Hence a slow
+ * service does not slow down the load and hide its own latency, i.e. there is no coordinated omission. With a target
+ * {@link #concurrency}, a fixed number of requests are kept in flight instead, which is a closed model.
+ * The default matchers and handlers of the template are applied to each request, and their failures are counted as
+ * errors.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class LoadRunner {
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double WARM_UP_LOAD = 0.1;
+    private static final long CONCURRENCY_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final WebTemplate webTemplate;
+    private final Supplier<? extends RequestBuilder> requests;
+    private double rate;
+    private int concurrency;
+    private long warmUp;
+    private long rampUp;
+    private long duration;
+    private long drainTimeout = TimeUnit.SECONDS.toNanos(30);
+
+    private LoadRunner(WebTemplate webTemplate, Supplier<? extends RequestBuilder> requests) {
+        notNull(webTemplate, "webTemplate must not be null");
+        this.webTemplate = webTemplate;
+        notNull(requests, "requests must not be null");
+        this.requests = requests;
+    }
+
+    /**
+     * Create a load runner of the requests created by {@code requests}, which is called once for every request.
+     *
+     * @param webTemplate template to perform the requests
+     * @param requests    supplier of the requests, e.g. a lambda calling an api interface
+     */
+    public static LoadRunner of(WebTemplate webTemplate, Supplier<? extends RequestBuilder> requests) {
+        return new LoadRunner(webTemplate, requests);
+    }
+
+    /**
+     * Run an open model at {@code requestsPerSecond}.
+     */
+    public LoadRunner rate(double requestsPerSecond) {
+        isTrue(requestsPerSecond > 0, "Rate must be positive");
+        rate = requestsPerSecond;
+        concurrency = 0;
+        return this;
+    }
+
+    /**
+     * Run a closed model which keeps {@code requests} requests in flight.
+     */
+    public LoadRunner concurrency(int requests) {
+        isTrue(requests > 0, "Concurrency must be positive");
+        concurrency = requests;
+        rate = 0;
+        return this;
+    }
+
+    /**
+     * Set the duration of the {@link LoadPhase#WARM_UP} phase, which is not run by default.
+     */
+    public LoadRunner warmUp(long time, TimeUnit unit) {
+        warmUp = unit.toNanos(time);
+        return this;
+    }
+
+    /**
+     * Set the duration of the {@link LoadPhase#RAMP_UP} phase, which is not run by default.
+     */
+    public LoadRunner rampUp(long time, TimeUnit unit) {
+        rampUp = unit.toNanos(time);
+        return this;
+    }
+
+    /**
+     * Set the duration of the {@link LoadPhase#STEADY_STATE} phase.
+     */
+    public LoadRunner duration(long time, TimeUnit unit) {
+        duration = unit.toNanos(time);
+        return this;
+    }
+
+    /**
+     * Set how long to wait for the requests in flight once all the phases are over, the default is 30 seconds.
+     */
+    public LoadRunner drainTimeout(long time, TimeUnit unit) {
+        drainTimeout = unit.toNanos(time);
+        return this;
+    }
+
+    /**
+     * Run all the phases on the calling thread, and wait for the requests in flight afterwards.
+     */
+    public LoadReport run() throws InterruptedException {
+        isTrue(rate > 0 || concurrency > 0, "Either rate or concurrency must be set");
+        isTrue(duration > 0, "Duration must be set");
+
+        Map<LoadPhase, PhaseStats> stats = new EnumMap<>(LoadPhase.class);
+        for (LoadPhase phase : LoadPhase.values()) {
+            if (phaseLength(phase) > 0) {
+                stats.put(phase, new PhaseStats(phaseLength(phase)));
+            }
+        }
+        InFlight inFlight = new InFlight();
+        long start = System.nanoTime();
+        long end = start + warmUp + rampUp + duration;
+        if (rate > 0) {
+            runOpenModel(start, end, stats, inFlight);
+        } else {
+            runClosedModel(start, end, stats, inFlight);
+        }
+        long unfinished = inFlight.await(drainTimeout);
+
+        Map<LoadPhase, PhaseReport> reports = new EnumMap<>(LoadPhase.class);
+        stats.forEach((phase, s) -> reports.put(phase, s.report(phase)));
+        return new LoadReport(reports, unfinished);
+    }
+
+    private void runOpenModel(long start, long end, Map<LoadPhase, PhaseStats> stats, InFlight inFlight) {
+        long intended = start;
+        while (intended < end) {
+            parkUntil(intended);
+            long elapsed = intended - start;
+            inFlight.increment();
+            fire(stats.get(phaseAt(elapsed)), intended, inFlight, null);
+            intended += (long) (TimeUnit.SECONDS.toNanos(1) / loadAt(elapsed, rate));
+        }
+    }
+
+    private void runClosedModel(long start, long end, Map<LoadPhase, PhaseStats> stats, InFlight inFlight) {
+        AtomicLong workers = new AtomicLong();
+        for (long now = start; now < end; now = System.nanoTime()) {
+            long desired = Math.round(loadAt(now - start, concurrency));
+            while (workers.get() < desired) {
+                workers.incrementAndGet();
+                inFlight.increment();
+                fire(stats.get(phaseAt(now - start)), now, inFlight, () -> {
+                    long next = System.nanoTime();
+                    return next < end ? stats.get(phaseAt(next - start)) : null;
+                });
+            }
+            parkUntil(now + CONCURRENCY_CHECK_INTERVAL);
+        }
+    }
+
+    /**
+     * Fire one request intended to start at {@code intended}, which is already counted in flight. In the closed model,
+     * {@code next} provides the phase of the following request of the same worker once this one completes, or null
+     * when the worker should stop. The following request is fired from another thread, in case this one completes
+     * synchronously.
+     */
+    private void fire(PhaseStats phase, long intended, InFlight inFlight, Supplier<PhaseStats> next) {
+        long sent = System.nanoTime();
+        CompletableFuture<ResultActions> future;
+        try {
+            future = webTemplate.performAsync(requests.get());
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((actions, t) -> {
+            long now = System.nanoTime();
+            phase.record(now - intended, now - sent, t == null);
+            if (next != null) {
+                PhaseStats nextPhase = next.get();
+                if (nextPhase != null) {
+                    inFlight.increment();
+                    ForkJoinPool.commonPool().execute(() -> fire(nextPhase, System.nanoTime(), inFlight, next));
+                }
+            }
+            inFlight.decrement();
+        });
+    }
+
+    private LoadPhase phaseAt(long elapsed) {
+        if (elapsed < warmUp) {
+            return LoadPhase.WARM_UP;
+        }
+        return elapsed < warmUp + rampUp ? LoadPhase.RAMP_UP : LoadPhase.STEADY_STATE;
+    }
+
+    /**
+     * The load, i.e. rate or concurrency, at {@code elapsed} nanoseconds from the start.
+     */
+    private double loadAt(long elapsed, double target) {
+        double warmUpLoad = Math.max(1, target * WARM_UP_LOAD);
+        if (elapsed < warmUp) {
+            return warmUpLoad;
+        }
+        if (elapsed < warmUp + rampUp) {
+            return warmUpLoad + (target - warmUpLoad) * (elapsed - warmUp) / rampUp;
+        }
+        return target;
+    }
+
+    private long phaseLength(LoadPhase phase) {
+        switch (phase) {
+            case WARM_UP:
+                return warmUp;
+            case RAMP_UP:
+                return rampUp;
+            default:
+                return duration;
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        for (long now = System.nanoTime(); now < deadline; now = System.nanoTime()) {
+            LockSupport.parkNanos(deadline - now);
+        }
+    }
+
+    /**
+     * Statistics of one phase, recorded from the completion threads.
+     */
+    private static final class PhaseStats {
+        private final long length;
+        private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        PhaseStats(long length) {
+            this.length = length;
+        }
+
+        void record(long latencyNanos, long serviceNanos, boolean success) {
+            latency.recordValue(Math.max(latencyNanos, 0));
+            serviceTime.recordValue(Math.max(serviceNanos, 0));
+            requests.increment();
+            if (!success) {
+                errors.increment();
+            }
+        }
+
+        PhaseReport report(LoadPhase phase) {
+            return new PhaseReport(phase, Duration.ofNanos(length), requests.sum(), errors.sum(),
+                new LatencySummary("latency", phase.name(), latency.getIntervalHistogram()),
+                new LatencySummary("service time", phase.name(), serviceTime.getIntervalHistogram()));
+        }
+    }
+
+    /**
+     * Counter of the requests in flight, which can be waited for to drop to zero.
+     */
+    private static final class InFlight {
+        private long count;
+
+        synchronized void increment() {
+            count++;
+        }
+
+        synchronized void decrement() {
+            if (--count == 0) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * Wait until no request is in flight or the timeout elapses.
+         *
+         * @return the number of requests still in flight
+         */
+        synchronized long await(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            for (long now = System.nanoTime(); count > 0 && now < deadline; now = System.nanoTime()) {
+                TimeUnit.NANOSECONDS.timedWait(this, deadline - now);
+            }
+            return count;
+        }
+    }
+}
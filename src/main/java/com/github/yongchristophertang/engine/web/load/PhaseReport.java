@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.load;
+
+import com.github.yongchristophertang.engine.web.metrics.LatencySummary;
+
+import java.time.Duration;
+
+/**
+ * Throughput, error rate and latency percentiles of one phase of a load run.
+ * The latency is measured from the intended start of each request, so that the time a request waits behind slow ones
+ * is accounted for, while the service time is measured from its actual start.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class PhaseReport {
+    private final LoadPhase phase;
+    private final Duration duration;
+    private final long requests;
+    private final long errors;
+    private final LatencySummary latency;
+    private final LatencySummary serviceTime;
+
+    PhaseReport(LoadPhase phase, Duration duration, long requests, long errors, LatencySummary latency,
+        LatencySummary serviceTime) {
+        this.phase = phase;
+        this.duration = duration;
+        this.requests = requests;
+        this.errors = errors;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+    }
+
+    public LoadPhase getPhase() {
+        return phase;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Return the number of completed requests, including the failed ones.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Return the completed requests per second.
+     */
+    public double getThroughput() {
+        return duration.isZero() ? 0 : requests * 1e9 / duration.toNanos();
+    }
+
+    public double getErrorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    /**
+     * Return the latencies from the intended starts of the requests, free of coordinated omission.
+     */
+    public LatencySummary getLatency() {
+        return latency;
+    }
+
+    /**
+     * Return the latencies from the actual starts of the requests.
+     */
+    public LatencySummary getServiceTime() {
+        return serviceTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-13s%8.1fs%10d%10.1f%9.2f%%%10.3f%10.3f%10.3f%10.3f%10.3f", phase,
+            duration.toNanos() / 1e9, requests, getThroughput(), getErrorRate() * 100, latency.getP50(),
+            latency.getP90(), latency.getP99(), latency.getP999(), latency.getMax());
+    }
+}
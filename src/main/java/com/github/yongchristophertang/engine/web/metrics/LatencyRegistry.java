@@ -0,0 +1,189 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.metrics;
+
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import com.github.yongchristophertang.engine.web.HttpResult;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.http.HttpRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of latency histograms aggregated across a test run. Each performed request is recorded twice, under its
+ * description, i.e. the {@link com.github.yongchristophertang.engine.web.annotations.Description} value, and under its
+ * http method and path template, e.g. {@code GET /items/{id}}.
+ * Latencies are recorded into HdrHistogram {@link Recorder}s, whose writers are wait-free, so recording from
+ * parallel tests does not contend. The registry is typically fed by {@link com.github.yongchristophertang.engine.web
+ * .response.HttpResultHandlers#latency()} and reported by the TestNG listener or JUnit rule of this package.
+ * Requests aborted by their deadline have no latency and are counted apart instead, by the
+ * {@link com.github.yongchristophertang.engine.web.WebTemplate} into the {@link #getDefault() default} registry.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class LatencyRegistry {
+    public static final String BY_DESCRIPTION = "description";
+    public static final String BY_TEMPLATE = "template";
+
+    private static final LatencyRegistry DEFAULT = new LatencyRegistry();
+    private static final Pattern SCHEME_AND_HOST = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/]*");
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, LatencyRecorder> byDescription = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyRecorder> byTemplate = new ConcurrentHashMap<>();
+
+    /**
+     * Return the registry shared by the framework.
+     */
+    public static LatencyRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Record the total latency of {@code result}.
+     */
+    public void record(HttpResult result) {
+        long nanos = result.getTimings().getTotal().toNanos();
+        if (result.getRequestDescritpion() != null) {
+            record(byDescription, result.getRequestDescritpion(), nanos);
+        }
+        record(byTemplate, templateOf(result.getHttpRequest(), result.getRequestTemplate()), nanos);
+    }
+
+    /**
+     * Count {@code request} as aborted by its deadline.
+     *
+     * @param description     description of the request, may be null
+     * @param requestTemplate url template of the request, may be null
+     */
+    public void recordDeadlineExceeded(HttpRequest request, String description, String requestTemplate) {
+        if (description != null) {
+            recorder(byDescription, description).deadlineExceeded.increment();
+        }
+        recorder(byTemplate, templateOf(request, requestTemplate)).deadlineExceeded.increment();
+    }
+
+    /**
+     * Return the summaries of all the recorded keys, those by description first.
+     */
+    public List<LatencySummary> summaries() {
+        List<LatencySummary> summaries = new ArrayList<>();
+        summarize(BY_DESCRIPTION, byDescription, summaries);
+        summarize(BY_TEMPLATE, byTemplate, summaries);
+        return summaries;
+    }
+
+    /**
+     * Format the summaries as a plain text table.
+     */
+    public String summaryTable() {
+        List<LatencySummary> summaries = summaries();
+        int width = summaries.stream().mapToInt(s -> s.getKey().length()).max().orElse(0) + 2;
+        StringBuilder table = new StringBuilder(String.format(
+            "%-12s%-" + width + "s%10s%10s%10s%10s%10s%10s%10s%10s%10s%n", "group", "key", "count", "min", "mean",
+            "p50", "p90", "p99", "p999", "max", "expired"));
+        summaries.forEach(s -> table.append(String.format(
+            "%-12s%-" + width + "s%10d%10.3f%10.3f%10.3f%10.3f%10.3f%10.3f%10.3f%10d%n", s.getGroup(), s.getKey(),
+            s.getCount(), s.getMin(), s.getMean(), s.getP50(), s.getP90(), s.getP99(), s.getP999(), s.getMax(),
+            s.getDeadlineExceeded())));
+        return table.append("(latencies in milliseconds)").toString();
+    }
+
+    /**
+     * Write the summaries into {@code latency.json} and {@code latency.csv} under {@code directory}.
+     */
+    public void writeReport(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        List<LatencySummary> summaries = summaries();
+        JsonCodec.getDefault().prettyWriter().writeValue(new File(directory, "latency.json"), summaries);
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(new File(directory, "latency.csv").toPath(),
+            StandardCharsets.UTF_8))) {
+            csv.println("group,key,count,min,mean,p50,p90,p99,p999,max,expired");
+            summaries.forEach(s -> csv.printf("%s,\"%s\",%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d%n", s.getGroup(),
+                s.getKey().replace("\"", "\"\""), s.getCount(), s.getMin(), s.getMean(), s.getP50(), s.getP90(),
+                s.getP99(), s.getP999(), s.getMax(), s.getDeadlineExceeded()));
+        }
+    }
+
+    /**
+     * Remove all the recorded latencies.
+     */
+    public void reset() {
+        byDescription.clear();
+        byTemplate.clear();
+    }
+
+    private static void record(ConcurrentMap<String, LatencyRecorder> recorders, String key, long nanos) {
+        recorder(recorders, key).record(nanos);
+    }
+
+    private static LatencyRecorder recorder(ConcurrentMap<String, LatencyRecorder> recorders, String key) {
+        return recorders.computeIfAbsent(key, k -> new LatencyRecorder());
+    }
+
+    private static void summarize(String group, Map<String, LatencyRecorder> recorders,
+        List<LatencySummary> summaries) {
+        recorders.entrySet().stream().sorted(Map.Entry.comparingByKey())
+            .forEach(e -> summaries.add(new LatencySummary(group, e.getKey(), e.getValue().snapshot(),
+                e.getValue().deadlineExceeded.sum())));
+    }
+
+    /**
+     * The http method followed by the path of the url template, or of the request uri if the template is unknown.
+     */
+    private static String templateOf(HttpRequest request, String template) {
+        String method = request.getRequestLine().getMethod();
+        if (template == null) {
+            template = request.getRequestLine().getUri();
+            int query = template.indexOf('?');
+            template = query < 0 ? template : template.substring(0, query);
+        }
+        String path = SCHEME_AND_HOST.matcher(template).replaceFirst("");
+        return method + " " + (path.isEmpty() ? "/" : path);
+    }
+
+    /**
+     * Wait-free recorder which accumulates its interval histograms on each snapshot.
+     */
+    private static final class LatencyRecorder {
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram accumulated = new Histogram(SIGNIFICANT_DIGITS);
+        private final LongAdder deadlineExceeded = new LongAdder();
+
+        void record(long nanos) {
+            recorder.recordValue(Math.max(nanos, 0));
+        }
+
+        synchronized Histogram snapshot() {
+            accumulated.add(recorder.getIntervalHistogram());
+            return accumulated.copy();
+        }
+    }
+}
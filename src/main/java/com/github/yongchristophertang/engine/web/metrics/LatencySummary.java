@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.metrics;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Percentile summary of the latencies recorded under one key, in milliseconds.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class LatencySummary {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final String group;
+    private final String key;
+    private final long count;
+    private final double min;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+    private final double max;
+    private final long deadlineExceeded;
+
+    public LatencySummary(String group, String key, Histogram histogram) {
+        this(group, key, histogram, 0);
+    }
+
+    public LatencySummary(String group, String key, Histogram histogram, long deadlineExceeded) {
+        this.group = group;
+        this.key = key;
+        this.count = histogram.getTotalCount();
+        this.min = histogram.getMinValue() / NANOS_PER_MILLI;
+        this.mean = histogram.getMean() / NANOS_PER_MILLI;
+        this.p50 = histogram.getValueAtPercentile(50) / NANOS_PER_MILLI;
+        this.p90 = histogram.getValueAtPercentile(90) / NANOS_PER_MILLI;
+        this.p99 = histogram.getValueAtPercentile(99) / NANOS_PER_MILLI;
+        this.p999 = histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI;
+        this.max = histogram.getMaxValue() / NANOS_PER_MILLI;
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /**
+     * Return the group of the key, either {@link LatencyRegistry#BY_DESCRIPTION} or {@link
+     * LatencyRegistry#BY_TEMPLATE}.
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Return the number of requests aborted by their deadline, which are not part of the latencies.
+     */
+    public long getDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.metrics.junit;
+
+import com.github.yongchristophertang.engine.web.metrics.LatencyRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * JUnit4 class rule which reports the latencies of the default {@link LatencyRegistry} after all the tests of the
+ * class, e.g.
+ * <pre>
+ * &#64;ClassRule
+ * public static JUnit4LatencyReportRule latency = new JUnit4LatencyReportRule();
+ * </pre>
+ * The summary table is logged, and the json and csv reports are written into {@code target/latency} by default.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class JUnit4LatencyReportRule implements TestRule {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final File directory;
+
+    public JUnit4LatencyReportRule() {
+        this(new File("target", "latency"));
+    }
+
+    /**
+     * @param directory directory to write the json and csv reports into
+     */
+    public JUnit4LatencyReportRule(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    base.evaluate();
+                } finally {
+                    report(description);
+                }
+            }
+        };
+    }
+
+    private void report(Description description) {
+        LatencyRegistry registry = LatencyRegistry.getDefault();
+        LOGGER.info("Latencies of " + description.getDisplayName() + ":\n" + registry.summaryTable());
+        try {
+            registry.writeReport(directory);
+        } catch (IOException e) {
+            LOGGER.error("Cannot write latency report into " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.metrics.testng;
+
+import com.github.yongchristophertang.engine.web.metrics.LatencyRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * TestNG listener which reports the latencies of the default {@link LatencyRegistry} when a suite ends. The summary
+ * table is logged, and the json and csv reports are written into the output directory of the suite.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class TestNGLatencyReportListener implements ISuiteListener {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @Override
+    public void onStart(ISuite suite) {
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        LatencyRegistry registry = LatencyRegistry.getDefault();
+        LOGGER.info("Latencies of suite " + suite.getName() + ":\n" + registry.summaryTable());
+        try {
+            registry.writeReport(new File(suite.getOutputDirectory()));
+        } catch (IOException e) {
+            LOGGER.error("Cannot write latency report of suite " + suite.getName(), e);
+        }
+    }
+}
@@ -19,9 +19,12 @@ package com.github.yongchristophertang.engine.web.request;
 import com.github.yongchristophertang.engine.web.http.BodyForm;
 import com.github.yongchristophertang.engine.web.http.MultipartBodyFormBuilder;
 import org.apache.http.HttpRequest;
+import org.apache.http.entity.ContentType;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 
@@ -59,7 +62,7 @@ public class HttpMultipartRequestBuilders extends HttpRequestBuilders {
     @Override
     public HttpRequestBase buildRequest() throws Exception {
         HttpEntityEnclosingRequestBase requestBase = (HttpEntityEnclosingRequestBase) super.buildRequest();
-        requestBase.setEntity(this.bodyBuilder.buildBody().getHttpEntity());
+        requestBase.setEntity(compressBody(this.bodyBuilder.buildBody().getHttpEntity()));
         return requestBase;
     }
 
@@ -88,6 +91,40 @@ public class HttpMultipartRequestBuilders extends HttpRequestBuilders {
         return this;
     }
 
+    /**
+     * Set the uploaded file with a content type
+     *
+     * @param name        updated file name
+     * @param path        local file path
+     * @param contentType content type of the part
+     */
+    public HttpMultipartRequestBuilders file(String name, Path path, ContentType contentType) {
+        if (bodyBuilder == null) {
+            bodyBuilder = MultipartBodyFormBuilder.create();
+        }
+
+        bodyBuilder.file(name, path, contentType);
+        return this;
+    }
+
+    /**
+     * Set the uploaded stream of unknown length, which is sent with chunked transfer encoding
+     *
+     * @param name        updated content name
+     * @param in          content stream
+     * @param contentType content type of the part
+     * @param fileName    file name of the part, may be null
+     */
+    public HttpMultipartRequestBuilders stream(String name, InputStream in, ContentType contentType,
+        String fileName) {
+        if (bodyBuilder == null) {
+            bodyBuilder = MultipartBodyFormBuilder.create();
+        }
+
+        bodyBuilder.stream(name, in, contentType, fileName);
+        return this;
+    }
+
     /**
      * Set multipart body parameters
      *
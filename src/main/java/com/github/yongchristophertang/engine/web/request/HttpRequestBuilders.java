@@ -17,22 +17,23 @@
 package com.github.yongchristophertang.engine.web.request;
 
 import com.github.yongchristophertang.engine.web.WebTemplate;
-import com.google.common.collect.Lists;
+import com.github.yongchristophertang.engine.web.http.ContentCoding;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpRequest;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
 
+import java.net.URI;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static com.github.yongchristophertang.engine.AssertUtils.*;
 
@@ -55,11 +56,16 @@ public class HttpRequestBuilders implements RequestBuilder {
     private final List<RequestPostProcessor> postProcessors = new ArrayList<>();
     private String description;
     private HttpRequest httpRequest;
-    private String uriTemplate;
+    private final String urlTemplate;
+    private final UriTemplate uriTemplate;
+    private final Map<String, String> pathVariables = new HashMap<>();
     private byte[] bytesContent;
     private String stringContent;
     private Locale locale;
     private String characterEncoding;
+    private ContentCoding compression;
+    private long compressionThreshold;
+    private Timeouts timeouts = Timeouts.inherited();
 
     /**
      * Package private constructor. To get an instance, use static factory
@@ -80,7 +86,8 @@ public class HttpRequestBuilders implements RequestBuilder {
         this.description = description;
         this.httpRequest = httpRequest;
         expandURLTemplate(urlTemplate, urlVariables);
-        this.uriTemplate = urlTemplate;
+        this.urlTemplate = urlTemplate;
+        this.uriTemplate = UriTemplate.of(urlTemplate);
     }
 
     /**
@@ -88,12 +95,11 @@ public class HttpRequestBuilders implements RequestBuilder {
      */
     @Override
     public HttpRequest buildRequest() throws Exception {
-        URIBuilder builder = new URIBuilder(uriTemplate);
-        builder.addParameters(parameters);
-        Header[] heads = new Header[headers.size()];
-        httpRequest.setHeaders(headers.toArray(heads));
-        ((HttpRequestBase) httpRequest).setURI(builder.build());
-        postProcessors.stream().forEach(p -> httpRequest = p.postProcessRequest(httpRequest));
+        httpRequest.setHeaders(headers.toArray(new Header[headers.size()]));
+        ((HttpRequestBase) httpRequest).setURI(new URI(uriTemplate.expand(pathVariables, parameters)));
+        for (RequestPostProcessor postProcessor : postProcessors) {
+            httpRequest = postProcessor.postProcessRequest(httpRequest);
+        }
 
         // The priorities for each content type are bytesContent > stringContent > bodyParameters
         if (bytesContent != null && bytesContent.length > 0) {
@@ -103,14 +109,35 @@ public class HttpRequestBuilders implements RequestBuilder {
         } else if (bodyParameters.size() > 0) {
             ((HttpEntityEnclosingRequestBase) httpRequest).setEntity(new UrlEncodedFormEntity(bodyParameters, "UTF-8"));
         }
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntityEnclosingRequest request = (HttpEntityEnclosingRequest) httpRequest;
+            request.setEntity(compressBody(request.getEntity()));
+        }
         return httpRequest;
     }
 
+    /**
+     * Compress the request body as configured by {@link #compress}, or return it as it is if not configured.
+     */
+    protected HttpEntity compressBody(HttpEntity entity) {
+        return compression == null ? entity : compression.compress(entity, compressionThreshold);
+    }
+
     @Override
     public String getRequestDescription() {
         return description;
     }
 
+    @Override
+    public String getRequestTemplate() {
+        return urlTemplate;
+    }
+
+    @Override
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
     /**
      * Add a request parameter to the {@link HttpRequestBuilders}.
      * If called more than once, the new values are added.
@@ -132,12 +159,15 @@ public class HttpRequestBuilders implements RequestBuilder {
      */
     public HttpRequestBuilders param(String name, Collection<String> values) {
         Objects.requireNonNull(name, "parameter name must not be null");
-        parameters.addAll(values.stream().map(v -> new BasicNameValuePair(name, v)).collect(Collectors.toList()));
+        for (String value : values) {
+            parameters.add(new BasicNameValuePair(name, value));
+        }
         return this;
     }
 
     /**
-     * Replace a section of path in the uriTemplate
+     * Replace a variable of the uriTemplate, either {@code {name}} or {@code ${name}}, with a value which is
+     * percent-encoded as a path segment. If called more than once, the last value is kept.
      *
      * @param name  replacement expression
      * @param value replacement value
@@ -146,8 +176,7 @@ public class HttpRequestBuilders implements RequestBuilder {
         Objects.requireNonNull(name, "path expression must not be null");
         Objects.requireNonNull(value, "path replacement must not be null");
 
-        uriTemplate = uriTemplate.replaceAll("\\$\\{" + name + "\\}", value);
-        uriTemplate = uriTemplate.replaceAll("\\{" + name + "\\}", value);
+        pathVariables.put(name, value);
         return this;
     }
 
@@ -159,8 +188,11 @@ public class HttpRequestBuilders implements RequestBuilder {
      */
     public HttpRequestBuilders header(String name, Object... values) {
         Objects.requireNonNull(name, "header name must not be null");
-        Arrays.asList(values).stream().filter(Objects::nonNull).forEach(
-                value -> headers.add(new BasicHeader(name, value.toString())));
+        for (Object value : values) {
+            if (value != null) {
+                headers.add(new BasicHeader(name, value.toString()));
+            }
+        }
         return this;
     }
 
@@ -182,8 +214,7 @@ public class HttpRequestBuilders implements RequestBuilder {
      */
     public HttpRequestBuilders accept(String... mediaTypes) {
         arrayNotEmpty(mediaTypes, "mediaTypes must not be null");
-        this.headers.add(new BasicHeader("Accept",
-                Lists.newArrayList(mediaTypes).stream().reduce((s1, s2) -> (s1 + ";" + s2)).orElse("")));
+        this.headers.add(new BasicHeader("Accept", String.join(";", mediaTypes)));
         return this;
     }
 
@@ -230,7 +261,9 @@ public class HttpRequestBuilders implements RequestBuilder {
     public HttpRequestBuilders body(String param, Collection<String> values) {
         notNull(param, "Parameter must not be null");
 
-        bodyParameters.addAll(values.stream().map(v -> new BasicNameValuePair(param, v)).collect(Collectors.toList()));
+        for (String value : values) {
+            bodyParameters.add(new BasicNameValuePair(param, value));
+        }
         return this;
     }
 
@@ -267,6 +300,74 @@ public class HttpRequestBuilders implements RequestBuilder {
     }
 
 
+    /**
+     * Compress the request body with {@code coding} if it is at least {@code threshold} bytes long, setting the
+     * {@code Content-Encoding} header accordingly. It takes precedence over the template level compression set by
+     * {@link com.github.yongchristophertang.engine.web.WebTemplateBuilder#compressRequests}.
+     *
+     * @param coding    content coding to compress with
+     * @param threshold minimum length in bytes of a body to compress
+     */
+    public HttpRequestBuilders compress(ContentCoding coding, long threshold) {
+        notNull(coding, "coding must not be null");
+        this.compression = coding;
+        this.compressionThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Override the connect time-out of the template for this request.
+     *
+     * @param timeOut time-out in milliseconds, zero for none
+     */
+    public HttpRequestBuilders connectTimeOut(int timeOut) {
+        timeouts = timeouts.withConnectTimeout(timeOut);
+        return this;
+    }
+
+    /**
+     * Override the socket time-out of the template for this request, i.e. the maximum inactivity between two data
+     * packets.
+     *
+     * @param timeOut time-out in milliseconds, zero for none
+     */
+    public HttpRequestBuilders socketTimeOut(int timeOut) {
+        timeouts = timeouts.withSocketTimeout(timeOut);
+        return this;
+    }
+
+    /**
+     * Override the time-out of the template to lease a connection from the pool for this request.
+     *
+     * @param timeOut time-out in milliseconds, zero for none
+     */
+    public HttpRequestBuilders connectionRequestTimeOut(int timeOut) {
+        timeouts = timeouts.withConnectionRequestTimeout(timeOut);
+        return this;
+    }
+
+    /**
+     * Override the hard deadline of the template for this request, after which it is aborted.
+     *
+     * @param deadline deadline in milliseconds, zero for none
+     * @see com.github.yongchristophertang.engine.web.WebTemplateBuilder#deadline
+     */
+    public HttpRequestBuilders deadline(long deadline) {
+        timeouts = timeouts.withDeadline(deadline);
+        return this;
+    }
+
+    /**
+     * Override the time-outs of the template for this request, where the negative ones are kept.
+     *
+     * @param timeouts time-outs of this request
+     */
+    public HttpRequestBuilders timeouts(Timeouts timeouts) {
+        notNull(timeouts, "timeouts must not be null");
+        this.timeouts = timeouts;
+        return this;
+    }
+
     /**
      * An extension point for further initialization of {@link org.apache.http.client.methods.HttpRequestBase}
      * in ways not built directly into the {@code MockHttpServletRequestBuilder}.
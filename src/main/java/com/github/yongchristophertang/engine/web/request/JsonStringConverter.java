@@ -19,6 +19,7 @@ package com.github.yongchristophertang.engine.web.request;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * Converter for transferring a Java object into a json string without any formats.
@@ -27,11 +28,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * @since 1.0
  */
 public class JsonStringConverter implements StringConverter<Object> {
+    private static final ObjectWriter WRITER =
+        new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL).writer();
+
     @Override
     public String convert(Object obj) {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL).writeValueAsString(obj);
+            return WRITER.writeValueAsString(obj);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
             return null;
@@ -28,4 +28,19 @@ public interface RequestBuilder {
     HttpRequest buildRequest() throws Exception;
 
     String getRequestDescription();
+
+    /**
+     * Return the url template the request is built from, before any path variable is replaced, e.g. {@code
+     * http://localhost:8080/items/{id}}. It identifies requests of the same api regardless of their arguments.
+     */
+    default String getRequestTemplate() {
+        return null;
+    }
+
+    /**
+     * Return the time-outs of this request which override those of the template.
+     */
+    default Timeouts getTimeouts() {
+        return Timeouts.inherited();
+    }
 }
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import com.github.yongchristophertang.engine.web.annotations.*;
+import com.github.yongchristophertang.engine.web.http.HttpMethod;
+import com.github.yongchristophertang.engine.web.http.MultipartBodyFormBuilder;
+import com.google.common.base.Strings;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import javaslang.control.Try;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.entity.ContentType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+
+/**
+ * Immutable request plan of an api interface method. All the class and method level annotations, as well as the
+ * annotated interface fields, are resolved once when the plan is compiled, so that each calling only binds its
+ * arguments.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class RequestPlan {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final String url;
+    private final String description;
+    private final String contentType;
+    private final String accept;
+    private final HttpMethod httpMethod;
+    private final Timeouts timeouts;
+    private final Params fieldParams;
+    private final Binding[] parameterBindings;
+
+    private RequestPlan(String url, String description, String contentType, String accept, HttpMethod httpMethod,
+        Timeouts timeouts, Params fieldParams, Binding[] parameterBindings) {
+        this.url = url;
+        this.description = description;
+        this.contentType = contentType;
+        this.accept = accept;
+        this.httpMethod = httpMethod;
+        this.timeouts = timeouts;
+        this.fieldParams = fieldParams;
+        this.parameterBindings = parameterBindings;
+    }
+
+    /**
+     * Compile the annotations of {@code method} and its declaring interface into a {@link RequestPlan}.
+     */
+    static RequestPlan compile(Method method) {
+        return compile(method, null);
+    }
+
+    /**
+     * Compile the annotations of {@code method} and its declaring interface into a {@link RequestPlan}, where a
+     * non-null {@code baseUrl} takes the place of the {@link Host} annotation.
+     */
+    static RequestPlan compile(Method method, String baseUrl) {
+        Class<?> iface = method.getDeclaringClass();
+
+        /* Handle the class level annotations: Host and Path, and the method level annotation: Path */
+        String host = baseUrl == null ? getHost(iface.getAnnotation(Host.class)) : StringUtils.removeEnd(baseUrl, "/");
+        String url = host + getPath(iface.getAnnotation(Path.class)) + getPath(method.getAnnotation(Path.class));
+
+        /* Fill out the api's description */
+        String description = Optional.ofNullable(method.getAnnotation(Description.class)).map(Description::value)
+            .orElse(method.getName());
+
+        // Handle Produce and Consume
+        String contentType = Optional.ofNullable(method.getAnnotation(Produce.class)).map(Produce::value).orElse(null);
+        String accept = Optional.ofNullable(method.getAnnotation(Consume.class)).map(Consume::value).orElse(null);
+
+        // Handle HTTPMethod, only ONE HTTPMethod can be annotated with one method
+        List<HTTPMethod> httpMethods = Arrays.stream(method.getAnnotations())
+            .map(a -> a.annotationType().getAnnotation(HTTPMethod.class)).filter(m -> m != null)
+            .collect(Collectors.toList());
+        if (httpMethods.size() != 1) {
+            throw new IllegalArgumentException("HTTPMethod annotation must be annotated once, no more and no less");
+        }
+        notNull(httpMethods.get(0).value(), "Http Method is not defined");
+        HttpMethod httpMethod = HttpMethod.valueOf(httpMethods.get(0).value());
+
+        // Handle Timeout
+        Timeouts timeouts = Optional.ofNullable(method.getAnnotation(Timeout.class))
+            .map(t -> Timeouts.of(t.connect(), t.socket(), t.connectionRequest(), t.deadline()))
+            .orElse(Timeouts.inherited());
+
+        /*
+            Handle the field level annotations: PathParam, BodyParam, QueryParam and HeaderParam.
+            Fields of an interface are constants, so their values are bound at compile time.
+         */
+        Params fieldParams = new Params();
+        for (Field f : iface.getFields()) {
+            Binding binding = Binding.of(f.getAnnotations());
+            if (binding == null || binding.kind == Kind.FILE) {
+                continue;
+            }
+            try {
+                Object value = f.get(null);
+                if (value != null) {
+                    binding.bind(value, fieldParams);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Cannot process field level annotations of " + f, e);
+            }
+        }
+
+        /*
+            Handle the method parameter level annotations: PathParam, BodyParam, QueryParam, HeaderParam and FileParam.
+         */
+        Parameter[] parameters = method.getParameters();
+        Binding[] parameterBindings = new Binding[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterBindings[i] = Binding.of(parameters[i].getAnnotations());
+        }
+
+        return new RequestPlan(url, description, contentType, accept, httpMethod, timeouts, fieldParams,
+            parameterBindings);
+    }
+
+    /**
+     * Bind the arguments of one calling and create the {@link HttpRequestBuilders} for it.
+     */
+    HttpRequestBuilders bind(Object[] args) {
+        Params params = fieldParams.copy();
+        try {
+            for (int i = 0; i < parameterBindings.length; i++) {
+                if (args[i] != null && parameterBindings[i] != null) {
+                    parameterBindings[i].bind(args[i], params);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Cannot process parameter level annotations", e);
+        }
+
+        HttpRequestBuilders builders;
+        if (params.fileParams.isEmpty()) {
+            builders = new HttpRequestBuilders(httpMethod.getHttpRequest(), url, description);
+            buildCommon(builders, params);
+            Optional.ofNullable(contentType).ifPresent(builders::contentType);
+            Optional.ofNullable(accept).ifPresent(builders::accept);
+            params.bodyParams.keySet().forEach(key -> {
+                if (key.equals("")) {
+                    // if use a raw string to set up body, then we only add the first value, ignore the further
+                    builders.body(params.bodyParams.get(key).iterator().next());
+                } else {
+                    builders.body(key, params.bodyParams.get(key));
+                }
+            });
+        } else {
+            HttpMultipartRequestBuilders multipartBuilders =
+                new HttpMultipartRequestBuilders(httpMethod.getHttpRequest(), url, description);
+            buildCommon(multipartBuilders, params);
+            Optional.ofNullable(accept).ifPresent(multipartBuilders::accept);
+            MultipartBodyFormBuilder multipartBodyFormBuilder = MultipartBodyFormBuilder.create();
+            params.bodyParams.keySet().forEach(key -> multipartBodyFormBuilder.param(key, params.bodyParams.get(key)));
+            params.fileParams.entries().forEach(e -> addFile(multipartBodyFormBuilder, e.getKey(), e.getValue()));
+            multipartBuilders.body(multipartBodyFormBuilder);
+            builders = multipartBuilders;
+        }
+        return builders;
+    }
+
+    /**
+     * Build time-outs, path, query string and ordinary header parameters.
+     */
+    private void buildCommon(HttpRequestBuilders builders, Params params) {
+        builders.timeouts(timeouts);
+        params.pathParams.forEach(builders::path);
+        params.queryParams.keySet().forEach(key -> builders.param(key, params.queryParams.get(key)));
+        params.headerParams.forEach(builders::header);
+    }
+
+    /**
+     * Add a file parameter to the multipart body, which is either a {@link java.nio.file.Path}, a {@link File}, an
+     * {@link InputStream}, or a path string where multiple paths are separated by commas.
+     */
+    private static void addFile(MultipartBodyFormBuilder builder, String name, Object value) {
+        if (value instanceof java.nio.file.Path) {
+            builder.file(name, (java.nio.file.Path) value);
+        } else if (value instanceof File) {
+            builder.file(name, ((File) value).toPath());
+        } else if (value instanceof InputStream) {
+            builder.stream(name, (InputStream) value, ContentType.DEFAULT_BINARY, name);
+        } else {
+            String path = value.toString();
+            if (path.contains(",")) {
+                for (String file : path.split(",")) {
+                    builder.file(name, file);
+                }
+            } else if (!path.isEmpty()) {
+                builder.file(name, path);
+            }
+        }
+    }
+
+    private static String getHost(Host host) {
+        notNull(host, "Host must not be null");
+        String url;
+        if (!Strings.isNullOrEmpty(host.value())) {
+            url = host.value() + ":" + host.port();
+        } else if (!Strings.isNullOrEmpty(host.location())) {
+            Properties properties = new Properties();
+            try (InputStream in = RequestPlan.class.getClassLoader().getResourceAsStream(host.location())) {
+                notNull(in, "Host config " + host.location() + " is not found");
+                properties.load(in);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot load host config " + host.location(), e);
+            }
+            url = properties.getProperty("http.host") + ":" + properties.getProperty("http.port");
+        } else {
+            throw new IllegalArgumentException("Host is not defined");
+        }
+
+        if (!url.startsWith("http://")) {
+            url = "http://" + url;
+        }
+        return url;
+    }
+
+    private static String getPath(Path path) {
+        if (path == null) {
+            return "";
+        }
+        String p = path.value();
+        return removeTrailingSlash(p.length() > 0 ? (p.startsWith("/") ? p : "/" + p) : "");
+    }
+
+    private static String removeTrailingSlash(String path) {
+        return path.endsWith("/") ? removeTrailingSlash(path.substring(0, path.length() - 1)) : path;
+    }
+
+    /**
+     * Kinds of parameter annotations.
+     */
+    private enum Kind {
+        PATH, BODY, QUERY, HEADER, FILE
+    }
+
+    /**
+     * Pre-computed binding of a field or a method parameter, built from the first parameter annotation found on it.
+     */
+    private static final class Binding {
+        private final Kind kind;
+        private final String name;
+        private final StringConverter<Object> converter;
+
+        private Binding(Kind kind, String name, Class<? extends StringConverter> converterClass) {
+            this.kind = kind;
+            this.name = name;
+            this.converter = converterClass == null ? null : StringConverters.get(converterClass);
+        }
+
+        static Binding of(Annotation[] annotations) {
+            for (Annotation a : annotations) {
+                if (a instanceof PathParam) {
+                    return new Binding(Kind.PATH, ((PathParam) a).value(), ((PathParam) a).converter());
+                } else if (a instanceof BodyParam) {
+                    return new Binding(Kind.BODY, ((BodyParam) a).value(), ((BodyParam) a).converter());
+                } else if (a instanceof QueryParam) {
+                    return new Binding(Kind.QUERY, ((QueryParam) a).value(), ((QueryParam) a).converter());
+                } else if (a instanceof HeaderParam) {
+                    return new Binding(Kind.HEADER, ((HeaderParam) a).value(), ((HeaderParam) a).converter());
+                } else if (a instanceof FileParam) {
+                    return new Binding(Kind.FILE, ((FileParam) a).value(), null);
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void bind(Object value, Params params) {
+            switch (kind) {
+                case PATH:
+                    params.pathParams.put(name, converter.convert(value));
+                    break;
+                case BODY:
+                    bindMulti(value, params.bodyParams);
+                    break;
+                case QUERY:
+                    bindMulti(value, params.queryParams);
+                    break;
+                case HEADER:
+                    params.headerParams.put(name, converter.convert(value));
+                    break;
+                case FILE:
+                    if (value instanceof Collection) {
+                        ((Collection<?>) value).forEach(v -> params.fileParams.put(name, v));
+                    } else {
+                        params.fileParams.put(name, value);
+                    }
+                    break;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void bindMulti(Object value, Multimap<String, String> target) {
+            if (value instanceof Collection) {
+                for (Object v : (Collection<?>) value) {
+                    target.put(name, Try.of(() -> converter.convert(v)).orElse(""));
+                }
+            } else if (value instanceof Map) {
+                ((Map<String, Object>) value).forEach((k, v) -> target.put(k, v.toString()));
+            } else {
+                target.put(name, converter.convert(value));
+            }
+        }
+    }
+
+    /**
+     * Resolved request parameters of one calling.
+     */
+    private static final class Params {
+        private final Multimap<String, String> queryParams = ArrayListMultimap.create();
+        private final Multimap<String, String> bodyParams = ArrayListMultimap.create();
+        private final Map<String, String> pathParams = new HashMap<>();
+        private final Multimap<String, Object> fileParams = ArrayListMultimap.create();
+        private final Map<String, String> headerParams = new HashMap<>();
+
+        Params copy() {
+            Params params = new Params();
+            params.queryParams.putAll(queryParams);
+            params.bodyParams.putAll(bodyParams);
+            params.pathParams.putAll(pathParams);
+            params.fileParams.putAll(fileParams);
+            params.headerParams.putAll(headerParams);
+            return params;
+        }
+    }
+}
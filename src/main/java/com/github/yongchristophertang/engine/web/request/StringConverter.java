@@ -18,6 +18,8 @@ package com.github.yongchristophertang.engine.web.request;
 
 /**
  * Type converter for transferring a Java object to a predefined string.
+ * Converters referenced by parameter annotations are instantiated once by {@link StringConverters} and shared, so
+ * implementations must be thread safe.
  *
  * @author Yong Tang
  * @since 1.0
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link StringConverter}s, which instantiates each converter class only once and shares the instance
+ * among all the api interfaces and threads.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public abstract class StringConverters {
+    private static final ConcurrentMap<Class<?>, StringConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    private StringConverters() {
+    }
+
+    /**
+     * Get the shared instance of {@code converterClass}, which is created by its no-arg constructor on the first
+     * access.
+     *
+     * @param converterClass the converter class
+     */
+    @SuppressWarnings("unchecked")
+    public static StringConverter<Object> get(Class<? extends StringConverter> converterClass) {
+        return (StringConverter<Object>) CONVERTERS.computeIfAbsent(converterClass, StringConverters::newConverter);
+    }
+
+    private static StringConverter<?> newConverter(Class<?> converterClass) {
+        try {
+            return (StringConverter<?>) converterClass.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot instantiate converter " + converterClass.getName(), e);
+        }
+    }
+}
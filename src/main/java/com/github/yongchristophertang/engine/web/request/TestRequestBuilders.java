@@ -125,4 +125,21 @@ public abstract class TestRequestBuilders {
         return (T) Proxy.newProxyInstance(TestRequestBuilders.class.getClassLoader(), new Class<?>[]{clientIface},
                 RequestProxy.getInstance());
     }
+
+    /**
+     * Create a {@code T} instance which is a proxy for the interface {@code clientIface}, like {@link #api(Class)},
+     * but sends all requests to {@code baseUrl} instead of the host declared by its
+     * {@link com.github.yongchristophertang.engine.web.annotations.Host} annotation. This is typically used to point an
+     * api interface at a local or embedded stub server.
+     *
+     * @param clientIface the API method definition interface
+     * @param baseUrl     scheme, host and port of the target server, e.g. {@code http://127.0.0.1:8080}
+     * @param <T>         Inteface class
+     * @return {@code T} instance
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T api(Class<T> clientIface, String baseUrl) {
+        return (T) Proxy.newProxyInstance(TestRequestBuilders.class.getClassLoader(), new Class<?>[]{clientIface},
+                RequestProxy.forBaseUrl(baseUrl));
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import org.apache.http.client.config.RequestConfig;
+
+/**
+ * Immutable per-request time-outs in milliseconds, which override those of the template. A negative value keeps the
+ * one of the template, while zero means no time-out.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class Timeouts {
+    private static final Timeouts INHERITED = new Timeouts(-1, -1, -1, -1);
+
+    private final int connectTimeout;
+    private final int socketTimeout;
+    private final int connectionRequestTimeout;
+    private final long deadline;
+
+    private Timeouts(int connectTimeout, int socketTimeout, int connectionRequestTimeout, long deadline) {
+        this.connectTimeout = connectTimeout;
+        this.socketTimeout = socketTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Return the time-outs which keep all those of the template.
+     */
+    public static Timeouts inherited() {
+        return INHERITED;
+    }
+
+    /**
+     * Return the time-outs of the given values, where negative ones keep those of the template.
+     */
+    public static Timeouts of(int connectTimeout, int socketTimeout, int connectionRequestTimeout, long deadline) {
+        return new Timeouts(connectTimeout, socketTimeout, connectionRequestTimeout, deadline);
+    }
+
+    public Timeouts withConnectTimeout(int millis) {
+        return new Timeouts(millis, socketTimeout, connectionRequestTimeout, deadline);
+    }
+
+    public Timeouts withSocketTimeout(int millis) {
+        return new Timeouts(connectTimeout, millis, connectionRequestTimeout, deadline);
+    }
+
+    public Timeouts withConnectionRequestTimeout(int millis) {
+        return new Timeouts(connectTimeout, socketTimeout, millis, deadline);
+    }
+
+    public Timeouts withDeadline(long millis) {
+        return new Timeouts(connectTimeout, socketTimeout, connectionRequestTimeout, millis);
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Return whether any of the connect, socket or connection request time-outs is overridden.
+     */
+    public boolean overridesRequestConfig() {
+        return connectTimeout >= 0 || socketTimeout >= 0 || connectionRequestTimeout >= 0;
+    }
+
+    /**
+     * Return a copy of {@code config} with the overridden time-outs, and all its other settings kept.
+     */
+    public RequestConfig applyTo(RequestConfig config) {
+        RequestConfig.Builder builder = RequestConfig.copy(config);
+        if (connectTimeout >= 0) {
+            builder.setConnectTimeout(connectTimeout);
+        }
+        if (socketTimeout >= 0) {
+            builder.setSocketTimeout(socketTimeout);
+        }
+        if (connectionRequestTimeout >= 0) {
+            builder.setConnectionRequestTimeout(connectionRequestTimeout);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.http.NameValuePair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Url template parsed once into literal and variable segments, e.g. {@code http://host/items/{id}} or
+ * {@code http://host/items/${id}}, and expanded with a single {@link StringBuilder}. Variable values are encoded as
+ * path segments, and query parameters as html forms, both in UTF-8. Parsed templates are cached by their string.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class UriTemplate {
+    /**
+     * Maximum number of cached templates, beyond which the least recently used ones are evicted, so that those built
+     * from already expanded urls do not leak.
+     */
+    private static final int MAX_CACHED = 4096;
+    private static final LoadingCache<String, UriTemplate> CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHED)
+        .build(CacheLoader.from(UriTemplate::parse));
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final BitSet ALPHANUMERIC = new BitSet(128);
+    /**
+     * Characters kept in a path segment, i.e. unreserved ones, sub-delimiters, colons and at signs.
+     */
+    private static final BitSet PATH_SEGMENT = new BitSet(128);
+    /**
+     * Characters kept by html form encoding, the same as {@link org.apache.http.client.utils.URLEncodedUtils#format}.
+     */
+    private static final BitSet FORM = new BitSet(128);
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            ALPHANUMERIC.set(c);
+            ALPHANUMERIC.set(Character.toUpperCase(c));
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ALPHANUMERIC.set(c);
+        }
+        PATH_SEGMENT.or(ALPHANUMERIC);
+        "-._~!$&'()*+,;=:@".chars().forEach(PATH_SEGMENT::set);
+        FORM.or(ALPHANUMERIC);
+        "-._*".chars().forEach(FORM::set);
+    }
+
+    /**
+     * Literals at even indexes and variable names at odd ones, starting and ending with a possibly empty literal.
+     */
+    private final String[] segments;
+    /**
+     * The variables as written in the template, to keep those left unbound.
+     */
+    private final String[] expressions;
+    private final int length;
+
+    private UriTemplate(String[] segments, String[] expressions, int length) {
+        this.segments = segments;
+        this.expressions = expressions;
+        this.length = length;
+    }
+
+    /**
+     * Return the parsed template, from the cache if it has been parsed before.
+     */
+    static UriTemplate of(String template) {
+        return CACHE.getUnchecked(template);
+    }
+
+    private static UriTemplate parse(String template) {
+        List<String> segments = new ArrayList<>();
+        List<String> expressions = new ArrayList<>();
+        int literalStart = 0;
+        int open = template.indexOf('{');
+        while (open >= 0) {
+            int close = template.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int expressionStart = open > 0 && template.charAt(open - 1) == '$' ? open - 1 : open;
+            segments.add(template.substring(literalStart, expressionStart));
+            segments.add(template.substring(open + 1, close));
+            expressions.add(template.substring(expressionStart, close + 1));
+            literalStart = close + 1;
+            open = template.indexOf('{', literalStart);
+        }
+        segments.add(template.substring(literalStart));
+        return new UriTemplate(segments.toArray(new String[segments.size()]),
+            expressions.toArray(new String[expressions.size()]), template.length());
+    }
+
+    /**
+     * Expand the template with the given variables, which are encoded as path segments, and append the query
+     * parameters, before the fragment if any. Unbound variables are kept as written.
+     *
+     * @param variables  values of the variables by name
+     * @param parameters query parameters
+     */
+    String expand(Map<String, String> variables, List<NameValuePair> parameters) {
+        StringBuilder uri = new StringBuilder(length + 16 * (expressions.length + parameters.size()));
+        uri.append(segments[0]);
+        for (int i = 1; i < segments.length; i += 2) {
+            String value = variables.get(segments[i]);
+            if (value == null) {
+                uri.append(expressions[i / 2]);
+            } else {
+                encode(uri, value, PATH_SEGMENT, false);
+            }
+            uri.append(segments[i + 1]);
+        }
+        if (parameters.isEmpty()) {
+            return uri.toString();
+        }
+
+        int fragment = uri.indexOf("#");
+        String fragmentPart = null;
+        if (fragment >= 0) {
+            fragmentPart = uri.substring(fragment);
+            uri.setLength(fragment);
+        }
+        char separator = uri.indexOf("?") < 0 ? '?' : '&';
+        for (NameValuePair parameter : parameters) {
+            uri.append(separator);
+            encode(uri, parameter.getName(), FORM, true);
+            if (parameter.getValue() != null) {
+                uri.append('=');
+                encode(uri, parameter.getValue(), FORM, true);
+            }
+            separator = '&';
+        }
+        return fragmentPart == null ? uri.toString() : uri.append(fragmentPart).toString();
+    }
+
+    /**
+     * Percent-encode the UTF-8 bytes of {@code value} not in {@code safe}, and spaces as {@code +} if
+     * {@code blankAsPlus}.
+     */
+    private static void encode(StringBuilder out, String value, BitSet safe, boolean blankAsPlus) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 128 && safe.get(c)) {
+                out.append(c);
+            } else if (c == ' ' && blankAsPlus) {
+                out.append('+');
+            } else if (c < 128) {
+                appendEscaped(out, c);
+            } else {
+                int end = i + 1;
+                while (end < value.length() && value.charAt(end) >= 128) {
+                    end++;
+                }
+                for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendEscaped(out, b & 0xFF);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, int b) {
+        out.append('%').append(HEX[b >> 4]).append(HEX[b & 0xF]);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.response;
+
+import com.github.yongchristophertang.engine.web.HttpResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link PrintResultHandler} which only snapshots the result on the request thread and leaves the formatting and
+ * logging to a background thread, e.g. for {@code alwaysDo(printAsync())} under load. Snapshots are handed over by a
+ * bounded queue; once it is full they are either dropped and counted, or the request thread waits, according to the
+ * {@link Backpressure} policy. Closing the handler prints the queued snapshots before returning.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class AsyncPrintResultHandler extends PrintResultHandler implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Snapshot STOP = new Snapshot();
+
+    /**
+     * What to do with a snapshot when the queue is full.
+     */
+    public enum Backpressure {
+        /**
+         * Drop the snapshot and count it in {@link #getDroppedCount()}.
+         */
+        DROP,
+
+        /**
+         * Wait on the request thread until there is room in the queue.
+         */
+        BLOCK
+    }
+
+    private final BlockingQueue<Snapshot> queue;
+    private final Backpressure backpressure;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread printer;
+    private volatile boolean closed;
+
+    /**
+     * Accessed via {@link HttpResultHandlers#printAsync}
+     */
+    protected AsyncPrintResultHandler(int queueCapacity, Backpressure backpressure, int maxBodyLength) {
+        super(maxBodyLength);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.backpressure = backpressure;
+        this.printer = new Thread(this::drain, "rest-connector-print");
+        printer.setDaemon(true);
+        printer.start();
+    }
+
+    /**
+     * Snapshot the given result and queue it for printing, or print it right away if the handler is closed.
+     *
+     * @param result the result of the executed request
+     * @throws Exception if a failure occurs
+     */
+    @Override
+    public void handle(HttpResult result) throws Exception {
+        if (!isEnabled()) {
+            return;
+        }
+        Snapshot snapshot = snapshot(result);
+        if (closed) {
+            print(snapshot);
+            return;
+        }
+        if (backpressure == Backpressure.BLOCK) {
+            queue.put(snapshot);
+        } else if (!queue.offer(snapshot)) {
+            dropped.increment();
+            return;
+        }
+        if (closed) {
+            // closed while queueing, the final drain of close() may have missed this snapshot
+            printer.join();
+            drainQueue();
+        }
+    }
+
+    /**
+     * Return the number of results not printed because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        List<Snapshot> batch = new ArrayList<>();
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (Snapshot snapshot : batch) {
+                    if (snapshot == STOP) {
+                        stopped = true;
+                    } else {
+                        printQuietly(snapshot);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainQueue() {
+        for (Snapshot snapshot = queue.poll(); snapshot != null; snapshot = queue.poll()) {
+            printQuietly(snapshot);
+        }
+    }
+
+    private void printQuietly(Snapshot snapshot) {
+        try {
+            print(snapshot);
+        } catch (RuntimeException e) {
+            LOGGER.error("Cannot print http result", e);
+        }
+    }
+
+    /**
+     * Stop accepting snapshots and wait until the queued ones are printed.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(STOP);
+            printer.join();
+        } catch (InterruptedException e) {
+            printer.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        // snapshots queued by the request threads after the printer stopped
+        drainQueue();
+        if (dropped.sum() > 0) {
+            LOGGER.warn("{} http results were dropped from printing as the queue was full", dropped.sum());
+        }
+    }
+}
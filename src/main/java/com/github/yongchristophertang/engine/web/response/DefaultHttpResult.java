@@ -16,13 +16,30 @@
 
 package com.github.yongchristophertang.engine.web.response;
 
+import com.github.yongchristophertang.engine.json.JsonCodec;
 import com.github.yongchristophertang.engine.web.HttpResult;
+import com.github.yongchristophertang.engine.web.RequestTimings;
+import com.github.yongchristophertang.engine.xml.XmlDocuments;
 import com.google.common.annotations.VisibleForTesting;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.ReadContext;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
-import org.apache.http.util.EntityUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A default implementation for {@link HttpResult}.
@@ -31,32 +48,113 @@ import java.io.IOException;
  * @since 0.4
  */
 public class DefaultHttpResult implements HttpResult {
+    /**
+     * Default size in bytes above which a response body spills to a temporary file.
+     */
+    public static final int DEFAULT_BUFFER_THRESHOLD = 16 * 1024 * 1024;
+
     private final HttpRequest httpRequest;
     private final HttpResponse httpResponse;
     private final long time;
     private final String description;
+    private final JsonCodec jsonCodec;
 
+    private RequestTimings timings;
+    private List<RequestTimings> attemptTimings;
+    private String requestTemplate;
+    private boolean fromCache;
+    private long wireSize = -1;
+    private long contentSize = -1;
+    private ResponseBody body;
     private String response;
+    private ReadContext jsonContext;
+    private Document xmlDocument;
 
     /**
      * Build an instance of {@link HttpResult} from an {@link org.apache.http
      * .HttpRequest}, an {@link org.apache.http.HttpResponse} and an execution time.
      */
     public DefaultHttpResult(HttpRequest httpRequest, HttpResponse httpResponse, long time, String description) {
+        this(httpRequest, httpResponse, time, description, JsonCodec.getDefault());
+    }
+
+    /**
+     * Build an instance of {@link HttpResult} with the {@link JsonCodec} of the performing template.
+     */
+    public DefaultHttpResult(HttpRequest httpRequest, HttpResponse httpResponse, long time, String description,
+        JsonCodec jsonCodec) {
+        this(httpRequest, httpResponse, time, description, jsonCodec, DEFAULT_BUFFER_THRESHOLD);
+    }
+
+    /**
+     * Build an instance of {@link HttpResult} whose response body spills to a temporary file once it is larger than
+     * {@code bufferThreshold} bytes.
+     */
+    public DefaultHttpResult(HttpRequest httpRequest, HttpResponse httpResponse, long time, String description,
+        JsonCodec jsonCodec, int bufferThreshold) {
         this.httpRequest = httpRequest;
         this.httpResponse = httpResponse;
         this.time = time;
         this.description = description;
+        this.jsonCodec = jsonCodec;
+        this.timings = RequestTimings.ofTotal(TimeUnit.MILLISECONDS.toNanos(time));
+        this.body = new ResponseBody(httpResponse.getEntity(), bufferThreshold);
     }
 
     /**
-     * Build an instance of {@link HttpResult} from an existing one.
+     * Build an instance of {@link HttpResult} from an existing one, sharing its buffered response body.
      */
     public DefaultHttpResult(HttpResult httpResult) {
         this.httpRequest = httpResult.getHttpRequest();
         this.httpResponse = httpResult.getHttpResponse();
         this.time = httpResult.getCostTime();
         this.description = httpResult.getRequestDescritpion();
+        this.jsonCodec = httpResult.getJsonCodec();
+        this.timings = httpResult.getTimings();
+        this.attemptTimings = httpResult.getAttemptTimings();
+        this.requestTemplate = httpResult.getRequestTemplate();
+        this.fromCache = httpResult.isFromCache();
+        this.wireSize = httpResult.getResponseWireSize();
+        this.contentSize = httpResult.getResponseContentSize();
+        if (httpResult instanceof DefaultHttpResult) {
+            DefaultHttpResult source = (DefaultHttpResult) httpResult;
+            this.body = source.body;
+            this.response = source.response;
+        } else if (httpResponse != null) {
+            this.body = new ResponseBody(httpResponse.getEntity(), DEFAULT_BUFFER_THRESHOLD);
+        }
+    }
+
+    /**
+     * Build an instance of {@link HttpResult} from an existing one, with its content replaced by {@code json}, e.g. a
+     * part of the original content evaluated from a json path. Parsed json objects and arrays are kept as they are,
+     * so the new result neither serializes them back to a string nor parses them again.
+     */
+    public DefaultHttpResult(HttpResult httpResult, Object json) {
+        this(httpResult);
+        body = null;
+        response = null;
+        if (json instanceof Map || json instanceof List) {
+            jsonContext = JsonPath.parse(json);
+        } else {
+            response = String.valueOf(json);
+        }
+    }
+
+    /**
+     * Build an instance of {@link HttpResult} from an existing one, with its content replaced by {@code xml}, e.g. a
+     * part of the original content evaluated from an XPath. An element is copied into a document of its own without
+     * parsing again, while any other node is kept as its text content.
+     */
+    public DefaultHttpResult(HttpResult httpResult, Node xml) {
+        this(httpResult);
+        body = null;
+        response = null;
+        if (xml != null && xml.getNodeType() == Node.ELEMENT_NODE) {
+            xmlDocument = XmlDocuments.newDocument(xml);
+        } else {
+            response = xml == null ? "" : xml.getTextContent();
+        }
     }
 
     /**
@@ -68,6 +166,8 @@ public class DefaultHttpResult implements HttpResult {
         httpResponse = null;
         time = 0;
         description = null;
+        jsonCodec = JsonCodec.getDefault();
+        timings = RequestTimings.ofTotal(0);
     }
 
     @Override
@@ -85,18 +185,131 @@ public class DefaultHttpResult implements HttpResult {
         return httpResponse;
     }
 
+    @Override
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(RequestTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public List<RequestTimings> getAttemptTimings() {
+        return attemptTimings == null ? Collections.singletonList(timings) : attemptTimings;
+    }
+
+    /**
+     * Set the timings of all the attempts, where the last one must be the timings of this result.
+     */
+    public void setAttemptTimings(List<RequestTimings> attemptTimings) {
+        this.attemptTimings = Collections.unmodifiableList(attemptTimings);
+    }
+
+    @Override
+    public String getRequestTemplate() {
+        return requestTemplate;
+    }
+
+    public void setRequestTemplate(String requestTemplate) {
+        this.requestTemplate = requestTemplate;
+    }
+
+    @Override
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    @Override
+    public long getResponseWireSize() {
+        return wireSize;
+    }
+
+    @Override
+    public long getResponseContentSize() {
+        return contentSize;
+    }
+
+    public void setResponseSizes(long wireSize, long contentSize) {
+        this.wireSize = wireSize;
+        this.contentSize = contentSize;
+    }
+
+    /**
+     * Read the response body right away instead of on the first access, e.g. to include it in the timings or to
+     * release the connection as early as possible.
+     */
+    public void bufferResponse() throws IOException {
+        if (body != null) {
+            body.buffer();
+        }
+    }
+
     public void setHttpResponse(String response) {
         this.response = response;
+        this.body = null;
+        this.jsonContext = null;
+        this.xmlDocument = null;
     }
 
     @Override
     public String getResponseStringContent() throws IOException {
         if (response == null) {
-            response = EntityUtils.toString(httpResponse.getEntity());
+            if (body != null) {
+                response = body.asString();
+            } else if (jsonContext != null) {
+                response = jsonContext.configuration().jsonProvider().toJson(jsonContext.json());
+            } else if (xmlDocument != null) {
+                response = XmlDocuments.toString(xmlDocument);
+            }
         }
         return response;
     }
 
+    @Override
+    public InputStream getResponseStream() throws IOException {
+        return body != null ? body.openStream() :
+            new ByteArrayInputStream(getResponseStringContent().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Reader getResponseReader() throws IOException {
+        if (response == null && body != null) {
+            return new InputStreamReader(body.openStream(), body.charset());
+        }
+        String content = getResponseStringContent();
+        return content == null ? null : new StringReader(content);
+    }
+
+    @Override
+    public ReadContext getJsonContext() throws IOException {
+        if (jsonContext == null) {
+            if (response == null && body != null) {
+                try (InputStream in = body.openStream()) {
+                    jsonContext = JsonPath.parse(Configuration.defaultConfiguration().jsonProvider()
+                        .parse(in, body.charset().name()));
+                }
+            } else {
+                jsonContext = JsonPath.parse(getResponseStringContent());
+            }
+        }
+        return jsonContext;
+    }
+
+    @Override
+    public Document getXmlDocument() throws IOException {
+        if (xmlDocument == null) {
+            try (InputStream in = getResponseStream()) {
+                xmlDocument = XmlDocuments.parse(in);
+            }
+        }
+        return xmlDocument;
+    }
+
     /**
      * Return the description of this request.
      */
@@ -104,4 +317,9 @@ public class DefaultHttpResult implements HttpResult {
     public String getRequestDescritpion() {
         return description;
     }
+
+    @Override
+    public JsonCodec getJsonCodec() {
+        return jsonCodec;
+    }
 }
@@ -17,6 +17,11 @@
 package com.github.yongchristophertang.engine.web.response;
 
 import com.github.yongchristophertang.engine.web.ResultHandler;
+import com.github.yongchristophertang.engine.web.metrics.LatencyRegistry;
+import com.github.yongchristophertang.engine.web.response.AsyncPrintResultHandler.Backpressure;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
 
 /**
  * Static, factory methods for {@link ResultHandler}-based result actions.
@@ -25,6 +30,8 @@ import com.github.yongchristophertang.engine.web.ResultHandler;
  * @since 0.4
  */
 public abstract class HttpResultHandlers {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_MAX_BODY_LENGTH = 8192;
 
     /**
      * Print http execution factory to log system
@@ -32,4 +39,63 @@ public abstract class HttpResultHandlers {
     public static ResultHandler print() {
         return new PrintResultHandler();
     }
+
+    /**
+     * Print http execution factory to log system, with the request and response bodies truncated to {@code
+     * maxBodyLength} characters
+     */
+    public static ResultHandler print(int maxBodyLength) {
+        isTrue(maxBodyLength >= 0, "Max body length must not be negative");
+        return new PrintResultHandler(maxBodyLength);
+    }
+
+    /**
+     * Print http execution factory to log system off the request thread, using a shared {@link
+     * AsyncPrintResultHandler} which drops results once 1024 are queued and truncates bodies to 8192 characters.
+     * Queued results are printed at JVM shutdown.
+     */
+    public static ResultHandler printAsync() {
+        return DefaultAsyncPrinter.INSTANCE;
+    }
+
+    /**
+     * Create an {@link AsyncPrintResultHandler}, which is to be closed by the caller.
+     *
+     * @param queueCapacity maximum number of results waiting to be printed
+     * @param backpressure  what to do with a result when the queue is full
+     * @param maxBodyLength maximum number of characters printed of the request and response bodies
+     */
+    public static AsyncPrintResultHandler printAsync(int queueCapacity, Backpressure backpressure, int maxBodyLength) {
+        isTrue(queueCapacity > 0, "Queue capacity must be positive");
+        notNull(backpressure, "Backpressure must not be null");
+        isTrue(maxBodyLength >= 0, "Max body length must not be negative");
+        return new AsyncPrintResultHandler(queueCapacity, backpressure, maxBodyLength);
+    }
+
+    /**
+     * Record latencies into the default {@link LatencyRegistry}, typically registered by {@link com.github
+     * .yongchristophertang.engine.web.WebTemplateBuilder#alwaysDo}
+     */
+    public static ResultHandler latency() {
+        return latency(LatencyRegistry.getDefault());
+    }
+
+    /**
+     * Record latencies into {@code registry}
+     */
+    public static ResultHandler latency(LatencyRegistry registry) {
+        return registry::record;
+    }
+
+    /**
+     * Lazily started holder of the shared {@link #printAsync()} handler.
+     */
+    private static final class DefaultAsyncPrinter {
+        private static final AsyncPrintResultHandler INSTANCE =
+            new AsyncPrintResultHandler(DEFAULT_QUEUE_CAPACITY, Backpressure.DROP, DEFAULT_MAX_BODY_LENGTH);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::close, "rest-connector-print-shutdown"));
+        }
+    }
 }
@@ -47,4 +47,11 @@ public abstract class HttpResultTransformers {
         return new XmlResultTransformer();
     }
 
+    /**
+     * Access to transformation of xml result with result of parsed xml element designated by XPath expression
+     */
+    public static XmlResultTransformer xml(String expression) {
+        return new XmlResultTransformer(expression);
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package com.github.yongchristophertang.engine.web.response;
 
+import com.github.yongchristophertang.engine.json.JsonPathCache;
 import com.github.yongchristophertang.engine.web.ResultMatcher;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
@@ -41,7 +42,7 @@ public class JsonPathResultMatchers {
      * Access via {@link HttpResultMatchers#jsonPath}
      */
     protected JsonPathResultMatchers(String expression) {
-        jsonPath = JsonPath.compile(expression);
+        jsonPath = JsonPathCache.getDefault().compile(expression);
     }
 
     /**
@@ -50,7 +51,7 @@ public class JsonPathResultMatchers {
      */
     public <T> ResultMatcher value(final Matcher<T> matcher) {
         return result -> MatcherAssert
-                .assertThat("Json Path:", jsonPath.read(result.getResponseStringContent()), matcher);
+                .assertThat("Json Path:", result.getJsonContext().read(jsonPath), matcher);
     }
 
     /**
@@ -65,7 +66,7 @@ public class JsonPathResultMatchers {
      */
     public ResultMatcher exists() {
         return result -> {
-            Object value = jsonPath.read(result.getResponseStringContent());
+            Object value = result.getJsonContext().read(jsonPath);
             MatcherAssert.assertThat("Jason Path Exists:", value, notNullValue());
             if (value instanceof List) {
                 MatcherAssert.assertThat("Jason Path List Exists:", ((List<?>) value).isEmpty(), is(false));
@@ -80,7 +81,7 @@ public class JsonPathResultMatchers {
         return result -> {
             Object value;
             try {
-                value = jsonPath.read(result.getResponseStringContent());
+                value = result.getJsonContext().read(jsonPath);
             } catch (PathNotFoundException e) {
                 value = null;
             }
@@ -103,9 +104,9 @@ public class JsonPathResultMatchers {
      */
     public ResultMatcher arraySize(int size) {
         return result -> {
-            value(instanceOf(List.class));
-            MatcherAssert.assertThat("Json Path List Size:",
-                    ((List<?>) jsonPath.read(result.getResponseStringContent())).size(), is(size));
+            Object value = result.getJsonContext().read(jsonPath);
+            MatcherAssert.assertThat("Json Path:", value, instanceOf(List.class));
+            MatcherAssert.assertThat("Json Path List Size:", ((List<?>) value).size(), is(size));
         };
     }
 }
@@ -18,16 +18,27 @@ package com.github.yongchristophertang.engine.web.response;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.yongchristophertang.engine.json.JsonPathCache;
+import com.github.yongchristophertang.engine.web.HttpResult;
 import com.github.yongchristophertang.engine.web.ResultActions;
 import com.github.yongchristophertang.engine.web.ResultTransform;
-import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.PathNotFoundException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Factory for json result transformation. An instance of this class is typically accessed via {@link com.github
@@ -38,6 +49,11 @@ import java.util.Objects;
  */
 public class JsonResultTransformer {
 
+    /**
+     * Json paths which can be evaluated while streaming, i.e. the root or a chain of plain field names.
+     */
+    private static final Pattern STREAMABLE_PATH = Pattern.compile("\\$(\\.[^.\\[\\]*]+)*");
+
     private String expression = null;
 
     /**
@@ -53,17 +69,14 @@ public class JsonResultTransformer {
     /**
      * Parse the result into a sub part json via evaluation of expression. And create another {@link com.github
      * .yongchristophertang.engine.web.ResultActions} instance which incorporate this json as response for further
-     * processing.
+     * processing. The sub part is handed over as a parsed document, without serializing and parsing it again.
      *
      * @param expression the JSON path expression
      */
     public ResultTransform<ResultActions> parse(String expression) {
         return result -> {
-            JsonPath jsonPath = JsonPath.compile(expression);
-            String content = jsonPath.read(result.getResponseStringContent()).toString();
-            DefaultHttpResult httpResult = new DefaultHttpResult(result);
-            httpResult.setHttpResponse(content);
-            return new DefaultResultActions(httpResult);
+            Object json = result.getJsonContext().read(JsonPathCache.getDefault().compile(expression));
+            return new DefaultResultActions(new DefaultHttpResult(result, json));
         };
     }
 
@@ -74,17 +87,15 @@ public class JsonResultTransformer {
      */
     public <T> ResultTransform<T> object(Class<T> clazz) {
         return result -> {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            mapper.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+            ObjectReader reader = result.getJsonCodec().reader(clazz);
+            if (expression == null) {
+                return reader.readValue(result.getResponseStringContent());
+            }
+            Object json = evaluate(result);
             try {
-                return expression == null ? mapper.readValue(result.getResponseStringContent(), clazz) :
-                        mapper.readValue(
-                                JsonPath.compile(expression).read(result.getResponseStringContent()).toString(),
-                                clazz);
+                return read(result, json, reader);
             } catch (JsonParseException e) {
-                Objects.nonNull(expression);
-                return clazz.cast(JsonPath.compile(expression).read(result.getResponseStringContent()));
+                return clazz.cast(json);
             }
         };
     }
@@ -96,14 +107,9 @@ public class JsonResultTransformer {
      */
     public <T> ResultTransform<List<T>> list(Class<T> clazz) {
         return result -> {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return expression == null ?
-                    mapper.readValue(result.getResponseStringContent(), TypeFactory.defaultInstance()
-                            .constructCollectionType(List.class, clazz)) :
-                    mapper.readValue(JsonPath.compile(expression).read(result.getResponseStringContent()).toString(),
-                            TypeFactory.defaultInstance()
-                                    .constructCollectionType(List.class, clazz));
+            ObjectReader reader = result.getJsonCodec().listReader(clazz);
+            return expression == null ? reader.readValue(result.getResponseStringContent()) :
+                    read(result, evaluate(result), reader);
         };
     }
 
@@ -115,12 +121,111 @@ public class JsonResultTransformer {
      */
     public <K, V> ResultTransform<Map<K, V>> map(Class<K> keyClass, Class<V> valueClass) {
         return result -> {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return expression == null ? mapper.readValue(result.getResponseStringContent(),
-                    TypeFactory.defaultInstance().constructMapLikeType(Map.class, keyClass, valueClass)) :
-                    mapper.readValue(JsonPath.compile(expression).read(result.getResponseStringContent()).toString(),
-                            TypeFactory.defaultInstance().constructMapLikeType(Map.class, keyClass, valueClass));
+            ObjectReader reader = result.getJsonCodec().mapReader(keyClass, valueClass);
+            return expression == null ? reader.readValue(result.getResponseStringContent()) :
+                    read(result, evaluate(result), reader);
+        };
+    }
+
+    /**
+     * Stream the elements of a huge json array with Jackson's streaming parser, binding them one at a time, so that
+     * neither the response string nor the whole document is held on the heap. The array is either the whole response
+     * or located by a json path of plain field names, like {@code $.data.items}.
+     * The returned stream reads the response lazily and must be closed after use.
+     *
+     * @param clazz class of the elements
+     */
+    public <T> ResultTransform<Stream<T>> stream(Class<T> clazz) {
+        if (expression != null && !STREAMABLE_PATH.matcher(expression).matches()) {
+            throw new InvalidPathException("Only json paths of plain field names can be streamed: " + expression);
+        }
+        return result -> {
+            ObjectReader reader = result.getJsonCodec().reader(clazz);
+            JsonParser parser = result.getJsonCodec().getMapper().getFactory().createParser(result.getResponseStream());
+            try {
+                locateArray(parser);
+            } catch (IOException | RuntimeException e) {
+                parser.close();
+                throw e;
+            }
+            Iterator<T> iterator = new Iterator<T>() {
+                private JsonToken next = parser.nextToken();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null && next != JsonToken.END_ARRAY;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        T value = reader.readValue(parser);
+                        next = parser.nextToken();
+                        return value;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
         };
     }
+
+    /**
+     * Move {@code parser} onto the start of the array located by {@link #expression}, skipping all the other fields
+     * without binding them.
+     */
+    private void locateArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (expression != null) {
+            for (String field : expression.substring(1).split("\\.")) {
+                if (field.isEmpty()) {
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new PathNotFoundException("No json object found for field " + field + " in " + expression);
+                }
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME && !field.equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                if (token != JsonToken.FIELD_NAME) {
+                    throw new PathNotFoundException("No field " + field + " found in " + expression);
+                }
+                token = parser.nextToken();
+            }
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new PathNotFoundException("No json array found at " + (expression == null ? "$" : expression));
+        }
+    }
+
+    /**
+     * Evaluate {@link #expression} against the parsed json document of {@code result}.
+     */
+    private Object evaluate(HttpResult result) throws IOException {
+        return result.getJsonContext().read(JsonPathCache.getDefault().compile(expression));
+    }
+
+    /**
+     * Bind an evaluated json part with {@code reader}. A string is read as json text, while parsed objects, arrays and
+     * other values are converted as a tree.
+     */
+    private static <T> T read(HttpResult result, Object json, ObjectReader reader) throws IOException {
+        if (json == null) {
+            return null;
+        }
+        return json instanceof String ? reader.readValue((String) json) :
+                reader.readValue(result.getJsonCodec().getMapper().<JsonNode>valueToTree(json));
+    }
 }
@@ -16,31 +16,55 @@
 
 package com.github.yongchristophertang.engine.web.response;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.yongchristophertang.engine.json.JsonCodec;
 import com.github.yongchristophertang.engine.web.HttpResult;
 import com.github.yongchristophertang.engine.web.ResultHandler;
-import com.google.common.collect.Lists;
+import com.github.yongchristophertang.engine.web.http.CompressingEntity;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.RequestLine;
+import org.apache.http.StatusLine;
+import org.apache.http.entity.ContentType;
 import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
- * An implementation of {@link ResultHandler} for performing print task
+ * An implementation of {@link ResultHandler} for performing print task. Nothing is done unless INFO is enabled for
+ * this class's logger. Request and response bodies longer than {@code maxBodyLength} characters are truncated.
  *
  * @author Yong Tang
  * @since 0.4
  */
 public class PrintResultHandler implements ResultHandler {
     private static final Logger logger = LogManager.getLogger();
+    static final int UNLIMITED = -1;
+
+    private final int maxBodyLength;
 
     /**
      * Accessed via {@link HttpResultHandlers#print}
      */
     protected PrintResultHandler() {
+        this(UNLIMITED);
+    }
+
+    /**
+     * Accessed via {@link HttpResultHandlers#print(int)}
+     */
+    protected PrintResultHandler(int maxBodyLength) {
+        this.maxBodyLength = maxBodyLength;
     }
 
     /**
@@ -51,48 +75,148 @@ public class PrintResultHandler implements ResultHandler {
      */
     @Override
     public void handle(HttpResult result) throws Exception {
+        if (isEnabled()) {
+            print(snapshot(result));
+        }
+    }
+
+    static boolean isEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    /**
+     * Capture the printed parts of {@code result}, leaving out all the formatting work.
+     */
+    Snapshot snapshot(HttpResult result) throws IOException {
         RequestLine rl = result.getHttpRequest().getRequestLine();
-        String body = null;
-        String formatter = "HTTP Request&Response Log: \n\n \t API: {} \n\n\t Request URL: {} \n\n \t ";
+        Snapshot snapshot = new Snapshot();
+        snapshot.description = result.getRequestDescritpion();
+        snapshot.requestLine = rl;
         if (rl.getMethod().equals("POST") || rl.getMethod().equals("PUT") || rl.getMethod().equals("PATCH")) {
-            try {
-                body = URLDecoder
-                    .decode(EntityUtils.toString(((HttpEntityEnclosingRequest) result.getHttpRequest()).getEntity()), "UTF-8");
-                formatter += "Request Body (URL Decoded): {} \n\n \t ";
-            } catch (UnsupportedOperationException e) {
-                formatter += "Multipart Body Cannot Be Displayed which is {}. \n\n \t ";
-            } catch (IllegalArgumentException e) {
-                formatter += "Request Body: {} \n\n \t ";
+            HttpEntity entity = ((HttpEntityEnclosingRequest) result.getHttpRequest()).getEntity();
+            if (isDisplayable(entity)) {
+                try {
+                    snapshot.requestBody = read(entity);
+                } catch (UnsupportedOperationException | IllegalStateException | IOException e) {
+                    // multipart entities refuse large contents, streaming ones may have been consumed
+                    snapshot.bodyNotDisplayable = true;
+                }
+            } else {
+                snapshot.bodyNotDisplayable = true;
             }
         } else {
-            formatter += "Request Body Not Applicable: {}\n\n \t ";
+            snapshot.bodyNotApplicable = true;
+        }
+        snapshot.requestHeaders = result.getHttpRequest().getAllHeaders();
+        snapshot.costTime = result.getCostTime();
+        snapshot.statusLine = result.getHttpResponse().getStatusLine();
+        snapshot.responseHeaders = result.getHttpResponse().getAllHeaders();
+        if (maxBodyLength == UNLIMITED) {
+            snapshot.responseContent = result.getResponseStringContent();
+        } else {
+            read(result, snapshot);
         }
-        formatter +=
-            "Request Headers: {} \n\n \t Cost Time(ms): {} \n\n \t Response Status: {} \n\n \t Response Headers: {} " +
-                "\n\n \t " +
-                "Response Content: \n {} \n=======================================================================\n";
-
-        logger.info(formatter, result.getRequestDescritpion(), rl, body, Lists.newArrayList(result.getHttpRequest().getAllHeaders()),
-            result.getCostTime(), result.getHttpResponse().getStatusLine(),
-            Lists.newArrayList(result.getHttpResponse().getAllHeaders()),
-            getPrettyJsonPrint(result.getResponseStringContent()));
+        snapshot.jsonCodec = result.getJsonCodec();
+        return snapshot;
     }
 
     /**
-     * Reformat Json string for better look in printing
-     *
-     * @param rawJson raw json string
-     * @return formatted json string
+     * Return whether the request entity can be read again for printing: streaming ones cannot be, multipart ones of
+     * unknown length refuse to, and compressing ones would be compressed once more.
+     */
+    private static boolean isDisplayable(HttpEntity entity) {
+        return entity == null || !(entity instanceof CompressingEntity) && entity.isRepeatable() &&
+            entity.getContentLength() >= 0;
+    }
+
+    /**
+     * Read the request entity, at most {@code maxBodyLength} characters of it if limited.
+     */
+    private String read(HttpEntity entity) throws IOException {
+        if (entity == null || maxBodyLength == UNLIMITED) {
+            return entity == null ? null : EntityUtils.toString(entity);
+        }
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        try (InputStream in = entity.getContent()) {
+            byte[] bytes = ByteStreams.toByteArray(ByteStreams.limit(in, maxBodyLength + 1L));
+            String body = new String(bytes, charset == null ? StandardCharsets.ISO_8859_1 : charset);
+            return body.length() > maxBodyLength ? body.substring(0, maxBodyLength) + " ...(truncated)" : body;
+        }
+    }
+
+    /**
+     * Read at most {@code maxBodyLength} characters of the response, counting but not holding the rest of it.
+     */
+    private void read(HttpResult result, Snapshot snapshot) throws IOException {
+        try (Reader reader = result.getResponseReader()) {
+            if (reader == null) {
+                return;
+            }
+            char[] content = new char[maxBodyLength];
+            int length = 0;
+            int n;
+            while (length < maxBodyLength && (n = reader.read(content, length, maxBodyLength - length)) != -1) {
+                length += n;
+            }
+            snapshot.responseContent = new String(content, 0, length);
+            snapshot.responseTruncated = CharStreams.copy(reader, CharStreams.nullWriter());
+        }
+    }
+
+    /**
+     * Format and log a snapshot.
      */
-    private String getPrettyJsonPrint(String rawJson) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            Object json = mapper.readValue(rawJson,
-                Object.class);
-            return mapper.writerWithDefaultPrettyPrinter()
-                .writeValueAsString(json);
-        } catch (Exception e) {
-            return rawJson;
+    void print(Snapshot snapshot) {
+        logger.info(format(snapshot));
+    }
+
+    static String format(Snapshot snapshot) {
+        StringBuilder formatter = new StringBuilder(512).append("HTTP Request&Response Log: \n\n \t API: ")
+            .append(snapshot.description).append(" \n\n\t Request URL: ").append(snapshot.requestLine)
+            .append(" \n\n \t ");
+        if (snapshot.bodyNotDisplayable) {
+            formatter.append("Multipart, Streaming Or Compressed Body Cannot Be Displayed. \n\n \t ");
+        } else if (snapshot.bodyNotApplicable) {
+            formatter.append("Request Body Not Applicable. \n\n \t ");
+        } else {
+            try {
+                formatter.append("Request Body (URL Decoded): ").append(snapshot.requestBody == null ? null :
+                    URLDecoder.decode(snapshot.requestBody, "UTF-8"));
+            } catch (IllegalArgumentException | IOException e) {
+                formatter.append("Request Body: ").append(snapshot.requestBody);
+            }
+            formatter.append(" \n\n \t ");
         }
+        formatter.append("Request Headers: ").append(Arrays.toString(snapshot.requestHeaders))
+            .append(" \n\n \t Cost Time(ms): ").append(snapshot.costTime).append(" \n\n \t Response Status: ")
+            .append(snapshot.statusLine).append(" \n\n \t Response Headers: ")
+            .append(Arrays.toString(snapshot.responseHeaders)).append(" \n\n \t Response Content: \n ");
+        if (snapshot.responseTruncated > 0) {
+            formatter.append(snapshot.responseContent).append(" ...(")
+                .append(snapshot.responseTruncated).append(" more characters truncated)");
+        } else {
+            formatter.append(snapshot.responseContent == null ? null :
+                snapshot.jsonCodec.prettyPrint(snapshot.responseContent));
+        }
+        return formatter.append(" \n=======================================================================\n")
+            .toString();
+    }
+
+    /**
+     * The printed parts of one result, immutable once captured.
+     */
+    static final class Snapshot {
+        private String description;
+        private RequestLine requestLine;
+        private String requestBody;
+        private boolean bodyNotDisplayable;
+        private boolean bodyNotApplicable;
+        private Header[] requestHeaders;
+        private long costTime;
+        private StatusLine statusLine;
+        private Header[] responseHeaders;
+        private String responseContent;
+        private long responseTruncated;
+        private JsonCodec jsonCodec;
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.response;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.FileBackedOutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * Response body buffered from the {@link HttpEntity} on first access, so that it can be read as many times as the
+ * matchers, handlers and transformers require. Bodies larger than the threshold spill to a temporary file instead of
+ * staying on the heap, and the file is deleted once the body is garbage collected.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class ResponseBody {
+    private final HttpEntity entity;
+    private final int bufferThreshold;
+    private ByteSource content;
+
+    ResponseBody(HttpEntity entity, int bufferThreshold) {
+        this.entity = entity;
+        this.bufferThreshold = bufferThreshold;
+    }
+
+    /**
+     * Read the body from the entity right away, if it has not been read.
+     */
+    void buffer() throws IOException {
+        content();
+    }
+
+    /**
+     * Open a new stream over the buffered body.
+     */
+    InputStream openStream() throws IOException {
+        return content().openStream();
+    }
+
+    /**
+     * Decode the buffered body with the charset declared by the entity, the same way as {@link EntityUtils#toString}.
+     */
+    String asString() throws IOException {
+        ByteSource source = content();
+        if (entity == null) {
+            return "";
+        }
+        return EntityUtils.toString(new HttpEntityWrapper(entity) {
+            @Override
+            public InputStream getContent() throws IOException {
+                return source.openStream();
+            }
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+        });
+    }
+
+    /**
+     * Return the charset declared by the entity, defaulting to ISO-8859-1 the same way as {@link EntityUtils#toString}.
+     */
+    Charset charset() throws UnsupportedEncodingException {
+        Charset charset = null;
+        try {
+            ContentType contentType = entity == null ? null : ContentType.get(entity);
+            charset = contentType == null ? null : contentType.getCharset();
+        } catch (UnsupportedCharsetException e) {
+            throw new UnsupportedEncodingException(e.getMessage());
+        }
+        return charset == null ? HTTP.DEF_CONTENT_CHARSET : charset;
+    }
+
+    private synchronized ByteSource content() throws IOException {
+        if (content == null) {
+            if (entity == null) {
+                content = ByteSource.empty();
+            } else {
+                FileBackedOutputStream buffer = new FileBackedOutputStream(bufferThreshold, true);
+                try (OutputStream out = buffer) {
+                    entity.writeTo(out);
+                } finally {
+                    EntityUtils.consumeQuietly(entity);
+                }
+                content = buffer.asByteSource();
+            }
+        }
+        return content;
+    }
+}
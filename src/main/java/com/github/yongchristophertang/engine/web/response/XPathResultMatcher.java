@@ -17,37 +17,36 @@
 package com.github.yongchristophertang.engine.web.response;
 
 import com.github.yongchristophertang.engine.web.ResultMatcher;
-import javaslang.control.Try;
+import com.github.yongchristophertang.engine.xml.XPathCache;
 import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
+import org.w3c.dom.Document;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 
 /**
- * XPath result matcher for XML validation
+ * XPath result matcher for XML validation.
+ * The response is parsed once per {@link com.github.yongchristophertang.engine.web.HttpResult} and the expression is
+ * compiled once per thread, so that a matcher can be shared among parallel tests, e.g. via {@link com.github
+ * .yongchristophertang.engine.web.WebTemplateBuilder#alwaysExpect}.
  *
  * @author Yong Tang
  * @since 0.5
  */
 public class XPathResultMatcher {
-    private DocumentBuilder builder;
-    private XPathExpression xPath;
+    private final String expression;
 
-    protected XPathResultMatcher(String expression) throws ParserConfigurationException, XPathExpressionException {
-        builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        xPath = XPathFactory.newInstance().newXPath().compile(expression);
+    protected XPathResultMatcher(String expression) throws XPathExpressionException {
+        XPathCache.compile(expression);
+        this.expression = expression;
     }
 
     public ResultMatcher value(final Matcher<String> mathcher) {
         return result -> MatcherAssert
-            .assertThat("XPath: ", xPath.evaluate(builder.parse(result.getResponseStringContent())), mathcher);
+            .assertThat("XPath: ", evaluate(result.getXmlDocument()), mathcher);
     }
 
     public ResultMatcher value(final String value) {
@@ -55,13 +54,20 @@ public class XPathResultMatcher {
     }
 
     public ResultMatcher exists() {
-        return result ->
-            Try.of(() -> xPath.evaluate(builder.parse(result.getResponseStringContent())))
-                .onFailure(t -> MatcherAssert.assertThat("The xpath evaluation does not exist", true, equalTo(false)));
+        return result -> MatcherAssert
+            .assertThat("The xpath evaluation does not exist", exists(result.getXmlDocument()), equalTo(true));
     }
 
     public ResultMatcher doesNotExist() {
-        return result -> Try.of(() -> xPath.evaluate(builder.parse(result.getResponseStringContent())))
-            .onSuccess(s -> MatcherAssert.assertThat("The xpath evaluation exists", true, equalTo(false)));
+        return result -> MatcherAssert
+            .assertThat("The xpath evaluation exists", exists(result.getXmlDocument()), equalTo(false));
+    }
+
+    private String evaluate(Document document) throws XPathExpressionException {
+        return XPathCache.compile(expression).evaluate(document);
+    }
+
+    private boolean exists(Document document) throws XPathExpressionException {
+        return XPathCache.compile(expression).evaluate(document, XPathConstants.NODE) != null;
     }
 }
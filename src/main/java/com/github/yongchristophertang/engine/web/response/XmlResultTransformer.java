@@ -16,12 +16,242 @@
 
 package com.github.yongchristophertang.engine.web.response;
 
+import com.github.yongchristophertang.engine.AssertUtils;
+import com.github.yongchristophertang.engine.web.HttpResult;
+import com.github.yongchristophertang.engine.web.ResultActions;
+import com.github.yongchristophertang.engine.web.ResultTransform;
+import com.github.yongchristophertang.engine.xml.JaxbContexts;
+import com.github.yongchristophertang.engine.xml.XPathCache;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
- * //TODO
+ * Factory for xml result transformation, the xml counterpart of {@link JsonResultTransformer}. Objects are bound with
+ * JAXB, whose contexts are cached per class. An instance of this class is typically accessed via {@link
+ * HttpResultTransformers#xml}
  *
  * @author Yong Tang
  * @since 0.4
  */
 public class XmlResultTransformer {
-    //TODO: Implementation
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private String expression = null;
+
+    /**
+     * Accessed via {@link HttpResultTransformers#xml}
+     */
+    protected XmlResultTransformer() {
+    }
+
+    protected XmlResultTransformer(String expression) {
+        compile(expression);
+        this.expression = expression;
+    }
+
+    /**
+     * Parse the result into a sub part xml via evaluation of XPath expression. And create another {@link
+     * ResultActions} instance which incorporate this xml as response for further processing. The sub part element is
+     * handed over as a parsed document, without serializing and parsing it again.
+     *
+     * @param expression the XPath expression
+     */
+    public ResultTransform<ResultActions> parse(String expression) {
+        compile(expression);
+        return result -> new DefaultResultActions(new DefaultHttpResult(result, evaluateNode(result, expression)));
+    }
+
+    /**
+     * Transform the result into an instance of {@code clazz}, which is bound from the whole document or from the
+     * element evaluated by the XPath expression.
+     *
+     * @param clazz JAXB bound class
+     */
+    public <T> ResultTransform<T> object(Class<T> clazz) {
+        return result -> {
+            Node node = expression == null ? result.getXmlDocument().getDocumentElement() :
+                evaluateNode(result, expression);
+            return node == null ? null : unmarshal(createUnmarshaller(clazz), node, clazz);
+        };
+    }
+
+    /**
+     * Transform the result into a list of {@code clazz} instances, which are bound from the elements evaluated by the
+     * XPath expression, or from the child elements of the document element if there is no expression.
+     *
+     * @param clazz JAXB bound class of the elements
+     */
+    public <T> ResultTransform<List<T>> list(Class<T> clazz) {
+        return result -> {
+            NodeList nodes;
+            try {
+                nodes = expression == null ? result.getXmlDocument().getDocumentElement().getChildNodes() :
+                    (NodeList) XPathCache.compile(expression).evaluate(result.getXmlDocument(), XPathConstants.NODESET);
+            } catch (XPathExpressionException e) {
+                throw new IOException("Cannot evaluate XPath " + expression, e);
+            }
+            Unmarshaller unmarshaller = createUnmarshaller(clazz);
+            List<T> list = new ArrayList<>();
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                    list.add(unmarshal(unmarshaller, nodes.item(i), clazz));
+                }
+            }
+            return list;
+        };
+    }
+
+    /**
+     * Stream the repeated elements named after {@code clazz} with StAX, see {@link #stream(String, Class)}. The name
+     * is the one of {@link XmlRootElement} if present, or the decapitalized simple class name as JAXB does.
+     *
+     * @param clazz JAXB bound class of the elements
+     */
+    public <T> ResultTransform<Stream<T>> stream(Class<T> clazz) {
+        XmlRootElement root = clazz.getAnnotation(XmlRootElement.class);
+        return stream(root != null && !"##default".equals(root.name()) ? root.name() :
+            Introspector.decapitalize(clazz.getSimpleName()), clazz);
+    }
+
+    /**
+     * Stream the elements of local name {@code elementName} anywhere in a huge response with StAX, binding them one
+     * at a time, so that neither the response string nor the DOM is held on the heap. The returned stream reads the
+     * response lazily and must be closed after use.
+     *
+     * @param elementName local name of the repeated elements
+     * @param clazz       JAXB bound class of the elements
+     */
+    public <T> ResultTransform<Stream<T>> stream(String elementName, Class<T> clazz) {
+        AssertUtils.notNull(elementName, "element name must not be null");
+        return result -> {
+            Unmarshaller unmarshaller = createUnmarshaller(clazz);
+            InputStream in = result.getResponseStream();
+            XMLStreamReader reader;
+            try {
+                reader = INPUT_FACTORY.createXMLStreamReader(in);
+            } catch (XMLStreamException e) {
+                in.close();
+                throw new IOException("Cannot read xml content", e);
+            }
+            Iterator<T> iterator = new Iterator<T>() {
+                private boolean found = seek(reader, elementName);
+
+                @Override
+                public boolean hasNext() {
+                    return found;
+                }
+
+                @Override
+                public T next() {
+                    if (!found) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        T value = unmarshaller.unmarshal(reader, clazz).getValue();
+                        found = seek(reader, elementName);
+                        return value;
+                    } catch (JAXBException e) {
+                        throw new IllegalStateException("Cannot bind element " + elementName, e);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                        in.close();
+                    } catch (XMLStreamException e) {
+                        throw new IllegalStateException(e);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        };
+    }
+
+    /**
+     * Move {@code reader} onto the next start of element {@code elementName}.
+     *
+     * @return false if the end of the document is reached
+     */
+    private static boolean seek(XMLStreamReader reader, String elementName) throws IOException {
+        try {
+            int event = reader.getEventType();
+            while (true) {
+                if (event == XMLStreamConstants.START_ELEMENT && elementName.equals(reader.getLocalName())) {
+                    return true;
+                }
+                if (!reader.hasNext()) {
+                    return false;
+                }
+                event = reader.next();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read xml content", e);
+        }
+    }
+
+    private static Node evaluateNode(HttpResult result, String expression) throws IOException {
+        try {
+            return (Node) XPathCache.compile(expression).evaluate(result.getXmlDocument(), XPathConstants.NODE);
+        } catch (XPathExpressionException e) {
+            throw new IOException("Cannot evaluate XPath " + expression, e);
+        }
+    }
+
+    private static Unmarshaller createUnmarshaller(Class<?> clazz) throws IOException {
+        try {
+            return JaxbContexts.get(clazz).createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new IOException("Cannot create JAXB unmarshaller of " + clazz.getName(), e);
+        }
+    }
+
+    private static <T> T unmarshal(Unmarshaller unmarshaller, Node node, Class<T> clazz) throws IOException {
+        try {
+            return unmarshaller.unmarshal(node, clazz).getValue();
+        } catch (JAXBException e) {
+            throw new IOException("Cannot bind xml element " + node.getNodeName() + " to " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * Fail fast on invalid XPath expressions.
+     */
+    private static void compile(String expression) {
+        try {
+            XPathCache.compile(expression);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath " + expression, e);
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.HttpHost;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+
+/**
+ * Circuit breaker with a circuit per host, which fails the requests to a host fast once it looks down, instead of
+ * letting each of them wait for its own time-out.
+ * A circuit opens after {@code failureThreshold} consecutive failures, i.e. I/O errors or 5xx responses. After
+ * {@code openDuration} a single trial request is let through: the circuit closes if it succeeds, otherwise it opens
+ * again for another {@code openDuration}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final ConcurrentMap<HttpHost, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * @param failureThreshold number of consecutive failures to open a circuit
+     * @param openDuration     duration of an open circuit before a trial request
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        isTrue(failureThreshold > 0, "failureThreshold must be positive");
+        notNull(openDuration, "openDuration must not be null");
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Acquire the permission to send a request to {@code host}.
+     *
+     * @throws CircuitBreakerOpenException if the circuit of the host is open
+     */
+    public void acquire(HttpHost host) throws CircuitBreakerOpenException {
+        if (!circuit(host).tryAcquire()) {
+            throw new CircuitBreakerOpenException(host);
+        }
+    }
+
+    /**
+     * Record a successful request to {@code host}.
+     */
+    public void onSuccess(HttpHost host) {
+        circuit(host).onSuccess();
+    }
+
+    /**
+     * Record a failed request to {@code host}.
+     */
+    public void onFailure(HttpHost host) {
+        circuit(host).onFailure();
+    }
+
+    /**
+     * Return the current state of the circuit of {@code host}.
+     */
+    public State getState(HttpHost host) {
+        return circuit(host).getState();
+    }
+
+    private Circuit circuit(HttpHost host) {
+        return circuits.computeIfAbsent(host, h -> new Circuit());
+    }
+
+    /**
+     * States of a circuit.
+     */
+    public enum State {
+        /**
+         * Requests are let through.
+         */
+        CLOSED,
+        /**
+         * Requests fail fast.
+         */
+        OPEN,
+        /**
+         * A trial request is in flight, other requests fail fast.
+         */
+        HALF_OPEN
+    }
+
+    private final class Circuit {
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+            state = State.CLOSED;
+        }
+
+        synchronized void onFailure() {
+            failures++;
+            if (state == State.HALF_OPEN || failures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.HttpHost;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request is not even attempted because the circuit of its host is open.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class CircuitBreakerOpenException extends IOException {
+    private final HttpHost host;
+
+    public CircuitBreakerOpenException(HttpHost host) {
+        super("Circuit breaker is open for " + host);
+        this.host = host;
+    }
+
+    public HttpHost getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+
+/**
+ * Idempotency aware {@link RetryPolicy} with exponential backoff and full jitter.
+ * <ul>
+ * <li>Idempotent requests, i.e. GET, HEAD, OPTIONS, TRACE, PUT and DELETE, are retried on any I/O error except
+ * unknown hosts and TLS errors, and on the statuses 429, 502, 503 and 504.</li>
+ * <li>Other requests are only retried if they were surely not processed: when the connection could not be
+ * established, or on the statuses 429 and 503.</li>
+ * </ul>
+ * The delay before the n-th retry is picked at random between zero and {@code base * 2^n}, capped at
+ * {@code maxDelay}. A {@code Retry-After} header of the response takes precedence over the backoff, but the request
+ * is not retried if the server asks for a longer delay than {@code maxDelay}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class DefaultRetryPolicy implements RetryPolicy {
+    private static final Set<String> IDEMPOTENT_METHODS =
+        new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE"));
+
+    private int maxRetries = 3;
+    private long baseDelay = 100;
+    private long maxDelay = 10_000;
+    private Set<Integer> idempotentStatuses = new HashSet<>(Arrays.asList(HttpStatus.SC_BAD_GATEWAY,
+        HttpStatus.SC_GATEWAY_TIMEOUT));
+    private Set<Integer> statuses = new HashSet<>(Arrays.asList(429, HttpStatus.SC_SERVICE_UNAVAILABLE));
+
+    private DefaultRetryPolicy() {
+    }
+
+    /**
+     * Create a policy of at most 3 retries, with a backoff of 100 milliseconds base and 10 seconds at most.
+     */
+    public static DefaultRetryPolicy create() {
+        return new DefaultRetryPolicy();
+    }
+
+    /**
+     * Set the maximum number of retries of a request.
+     */
+    public DefaultRetryPolicy maxRetries(int maxRetries) {
+        isTrue(maxRetries >= 0, "maxRetries must not be negative");
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Set the base and the cap of the exponential backoff.
+     *
+     * @param base delay bound of the first retry
+     * @param max  maximum delay of any retry, also the longest {@code Retry-After} honored
+     */
+    public DefaultRetryPolicy backoff(Duration base, Duration max) {
+        notNull(base, "base must not be null");
+        notNull(max, "max must not be null");
+        this.baseDelay = base.toMillis();
+        this.maxDelay = max.toMillis();
+        return this;
+    }
+
+    /**
+     * Retry idempotent requests on the given statuses as well.
+     */
+    public DefaultRetryPolicy retryOn(int... statuses) {
+        Arrays.stream(statuses).forEach(idempotentStatuses::add);
+        return this;
+    }
+
+    @Override
+    public long retryDelay(HttpRequest request, HttpResponse response, Exception exception, int retries) {
+        if (retries >= maxRetries) {
+            return NO_RETRY;
+        }
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.getRequestLine().getMethod());
+        if (response != null) {
+            int status = response.getStatusLine().getStatusCode();
+            if (statuses.contains(status) || (idempotent && idempotentStatuses.contains(status))) {
+                return retryAfter(response).orElse(backoff(retries));
+            }
+            return NO_RETRY;
+        }
+        if (exception instanceof ConnectException || exception instanceof ConnectTimeoutException ||
+            (idempotent && exception instanceof IOException && !(exception instanceof UnknownHostException) &&
+                !(exception instanceof SSLException) && !(exception instanceof CircuitBreakerOpenException))) {
+            return backoff(retries);
+        }
+        return NO_RETRY;
+    }
+
+    private long backoff(int retries) {
+        long bound = Math.min(maxDelay, baseDelay * (1L << Math.min(retries, 30)));
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Return the delay asked by the {@code Retry-After} header, in either seconds or an http date, or
+     * {@link #NO_RETRY} if it is longer than {@code maxDelay}.
+     */
+    private Optional<Long> retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null) {
+            return Optional.empty();
+        }
+        long delay;
+        try {
+            delay = Long.parseLong(header.getValue().trim()) * 1000;
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(header.getValue());
+            if (date == null) {
+                return Optional.empty();
+            }
+            delay = Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+        return Optional.of(delay > maxDelay ? NO_RETRY : delay);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+
+/**
+ * Budget which limits the retries of a template to a ratio of its requests, so that retries cannot multiply the load
+ * on a dependency which is already struggling. Each request deposits {@code ratio} of a retry and each retry withdraws
+ * a whole one. The balance starts at, and is capped by, a reserve of retries, so that a healthy period does not save
+ * up a retry storm for a later outage.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class RetryBudget {
+    private final double ratio;
+    private final double reserve;
+    private double balance;
+    private long retries;
+    private long rejections;
+
+    /**
+     * @param ratio   retries allowed per request on average, e.g. 0.2 for at most 20% extra load
+     * @param reserve retries allowed regardless of the ratio, e.g. for a test run of few requests, at least one as
+     *                the balance could never reach a whole retry otherwise
+     */
+    public RetryBudget(double ratio, int reserve) {
+        isTrue(ratio >= 0, "ratio must not be negative");
+        isTrue(reserve >= 1, "reserve must be at least one retry");
+        this.ratio = ratio;
+        this.reserve = reserve;
+        this.balance = reserve;
+    }
+
+    /**
+     * Deposit a request.
+     */
+    public synchronized void onRequest() {
+        balance = Math.min(reserve, balance + ratio);
+    }
+
+    /**
+     * Withdraw a retry if the budget allows it.
+     *
+     * @return whether the retry is allowed
+     */
+    public synchronized boolean tryRetry() {
+        if (balance >= 1) {
+            balance -= 1;
+            retries++;
+            return true;
+        }
+        rejections++;
+        return false;
+    }
+
+    /**
+     * Return the number of retries allowed so far.
+     */
+    public synchronized long getRetryCount() {
+        return retries;
+    }
+
+    /**
+     * Return the number of retries rejected so far because the budget was exhausted.
+     */
+    public synchronized long getRejectionCount() {
+        return rejections;
+    }
+}
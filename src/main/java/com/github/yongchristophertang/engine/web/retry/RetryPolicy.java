@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+/**
+ * Policy to decide whether and when a failed attempt of a request is retried. An attempt fails either with an
+ * exception or with a response, e.g. a 503, which the policy considers transient.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ * @see com.github.yongchristophertang.engine.web.WebTemplateBuilder#retry
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+    /**
+     * Delay returned to not retry.
+     */
+    long NO_RETRY = -1;
+
+    /**
+     * Decide whether to retry after an attempt.
+     *
+     * @param request   the request
+     * @param response  the response of the attempt, or null if it failed with {@code exception}
+     * @param exception the exception of the attempt, or null if it got {@code response}
+     * @param retries   number of retries performed so far
+     * @return the delay in milliseconds before the next attempt, or {@link #NO_RETRY}
+     */
+    long retryDelay(HttpRequest request, HttpResponse response, Exception exception, int retries);
+
+    /**
+     * Return the default policy, see {@link DefaultRetryPolicy}.
+     */
+    static RetryPolicy defaults() {
+        return DefaultRetryPolicy.create();
+    }
+}
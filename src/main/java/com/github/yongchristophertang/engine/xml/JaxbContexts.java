@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.xml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link JAXBContext}s, which creates the context of each bound class only once. Creating a context is
+ * expensive while the context itself is thread safe, so it is shared among all the transformers and threads.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public abstract class JaxbContexts {
+    private static final ConcurrentMap<Class<?>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    private JaxbContexts() {
+    }
+
+    /**
+     * Get the shared context of {@code clazz}, which is created on the first access.
+     *
+     * @param clazz the bound class
+     */
+    public static JAXBContext get(Class<?> clazz) {
+        return CONTEXTS.computeIfAbsent(clazz, JaxbContexts::newContext);
+    }
+
+    private static JAXBContext newContext(Class<?> clazz) {
+        try {
+            return JAXBContext.newInstance(clazz);
+        } catch (JAXBException e) {
+            throw new IllegalArgumentException("Cannot create JAXB context of " + clazz.getName(), e);
+        }
+    }
+}
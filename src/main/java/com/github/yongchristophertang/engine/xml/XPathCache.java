@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.xml;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of compiled {@link XPathExpression}s keyed by their expressions. Compiled expressions are not thread safe, so
+ * each thread keeps its own bounded cache, from which the least recently used expressions are evicted.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public abstract class XPathCache {
+    /**
+     * Maximum number of compiled expressions kept by each thread.
+     */
+    public static final int MAXIMUM_SIZE = 256;
+
+    private static final ThreadLocal<XPath> XPATHS = ThreadLocal.withInitial(XPathCache::newXPath);
+    private static final ThreadLocal<Map<String, XPathExpression>> EXPRESSIONS =
+        ThreadLocal.withInitial(() -> new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                return size() > MAXIMUM_SIZE;
+            }
+        });
+
+    private XPathCache() {
+    }
+
+    /**
+     * Compile {@code expression}, or return the one compiled before by the calling thread. The returned expression
+     * must not be shared with other threads.
+     *
+     * @param expression the XPath expression
+     * @throws XPathExpressionException if the expression is invalid
+     */
+    public static XPathExpression compile(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = EXPRESSIONS.get();
+        XPathExpression compiled = expressions.get(expression);
+        if (compiled == null) {
+            compiled = XPATHS.get().compile(expression);
+            expressions.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    private static XPath newXPath() {
+        return XPathFactory.newInstance().newXPath();
+    }
+}
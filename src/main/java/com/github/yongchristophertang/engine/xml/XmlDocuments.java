@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.xml;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+/**
+ * Parses xml contents into DOM {@link Document}s and serializes them back. Neither a {@link DocumentBuilder} nor a
+ * {@link Transformer} is thread safe, so each thread keeps its own ones, which are created once and reset before every
+ * use. Documents are parsed namespace aware, so that JAXB binds namespaced elements; XPath expressions select such
+ * elements by prefix-free tests like {@code *[local-name()='item']}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public abstract class XmlDocuments {
+    private static final DocumentBuilderFactory FACTORY = DocumentBuilderFactory.newInstance();
+    private static final ThreadLocal<DocumentBuilder> BUILDERS = ThreadLocal.withInitial(XmlDocuments::newBuilder);
+    private static final ThreadLocal<Transformer> TRANSFORMERS =
+        ThreadLocal.withInitial(XmlDocuments::newTransformer);
+
+    static {
+        FACTORY.setNamespaceAware(true);
+    }
+
+    private XmlDocuments() {
+    }
+
+    /**
+     * Parse the xml content of {@code in}, the encoding is detected from the content itself.
+     *
+     * @param in stream of the xml content, which is not closed by this method
+     * @throws IOException if the content cannot be read or is not well-formed xml
+     */
+    public static Document parse(InputStream in) throws IOException {
+        DocumentBuilder builder = BUILDERS.get();
+        builder.reset();
+        try {
+            return builder.parse(new InputSource(in));
+        } catch (SAXException e) {
+            throw new IOException("Content is not a well-formed xml document", e);
+        }
+    }
+
+    /**
+     * Create a new document with a deep copy of {@code element} as its document element.
+     *
+     * @param element the element to copy
+     */
+    public static Document newDocument(Node element) {
+        DocumentBuilder builder = BUILDERS.get();
+        builder.reset();
+        Document document = builder.newDocument();
+        document.appendChild(document.importNode(element, true));
+        return document;
+    }
+
+    /**
+     * Serialize {@code node} into xml content without the xml declaration.
+     *
+     * @param node the document or element to serialize
+     */
+    public static String toString(Node node) {
+        Transformer transformer = TRANSFORMERS.get();
+        transformer.reset();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        StringWriter writer = new StringWriter();
+        try {
+            transformer.transform(new DOMSource(node), new StreamResult(writer));
+        } catch (TransformerException e) {
+            throw new IllegalStateException("Cannot serialize xml node " + node.getNodeName(), e);
+        }
+        return writer.toString();
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            return TransformerFactory.newInstance().newTransformer();
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DocumentBuilder newBuilder() {
+        try {
+            synchronized (FACTORY) {
+                return FACTORY.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
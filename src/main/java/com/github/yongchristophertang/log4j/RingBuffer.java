@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.log4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer. Each slot carries a sequence number which
+ * tells producers whether the slot is free and the consumer whether it is filled, so producers only contend on one
+ * compare-and-set of the tail and never wait; a full buffer rejects the element instead.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class RingBuffer<E> {
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	/**
+	 * @param capacity rounded up to a power of two
+	 */
+	RingBuffer(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be within [1, 2^30]");
+		}
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.elements = new AtomicReferenceArray<>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Add an element, safe to be called by any thread.
+	 *
+	 * @return false if the buffer is full
+	 */
+	boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long available = sequences.get(index) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements.lazySet(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (available < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Return whether there is no element to drain, to be called by the single consumer thread only.
+	 */
+	boolean isEmpty() {
+		return sequences.get((int) head & mask) != head + 1;
+	}
+
+	/**
+	 * Hand at most {@code max} elements over to {@code consumer} in insertion order, to be called by the single
+	 * consumer thread only.
+	 *
+	 * @return the number of drained elements
+	 */
+	int drain(Consumer<? super E> consumer, int max) {
+		int drained = 0;
+		while (drained < max) {
+			int index = (int) head & mask;
+			if (sequences.get(index) != head + 1) {
+				break;
+			}
+			E element = elements.get(index);
+			elements.lazySet(index, null);
+			sequences.set(index, head + capacity);
+			head++;
+			drained++;
+			consumer.accept(element);
+		}
+		return drained;
+	}
+}
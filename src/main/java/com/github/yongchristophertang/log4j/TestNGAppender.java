@@ -16,6 +16,7 @@
 
 package com.github.yongchristophertang.log4j;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Layout;
 import org.apache.logging.log4j.core.LogEvent;
@@ -25,17 +26,48 @@ import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginElement;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.status.StatusLogger;
+import org.testng.ITestResult;
 import org.testng.Reporter;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Appender forwarding log lines to the TestNG {@link Reporter} of the current test.
+ * <p>
+ * With {@code async="true"} the logging thread only captures the event and its test result into a lock-free ring
+ * buffer of {@code bufferSize} events, and a dedicated thread formats them and reports them in batches. The thread
+ * sleeps while the buffer is empty and is woken up by the next event. Events arriving while the buffer is full or the
+ * appender is stopping are dropped and counted by {@link #getDroppedCount()}.
+ * <pre class="code">
+ * &lt;TestNGAppender name="app" async="true" bufferSize="8192"/&gt;
+ * </pre>
+ */
 @Plugin(name = "TestNGAppender", category = "Core", elementType = "appender", printObject = true)
 public final class TestNGAppender extends AbstractAppender {
 	private static final String LogFormat = "%s %s [%s] %s >> %s";
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+	private static final int BATCH_SIZE = 256;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final RingBuffer<Entry> buffer;
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder appending = new LongAdder();
+	private volatile Thread reporter;
+	private volatile boolean stopping;
+	private volatile boolean idle;
 
-	private TestNGAppender(String name, Layout layout, Filter filter) {
+	private TestNGAppender(String name, Layout layout, Filter filter, boolean async, int bufferSize) {
 		super(name, filter, layout);
+		this.buffer = async ? new RingBuffer<>(bufferSize) : null;
 	}
 
 	
@@ -43,17 +75,133 @@ public final class TestNGAppender extends AbstractAppender {
 	public static TestNGAppender createAppender(
 			@PluginAttribute("name") String name,
 			@PluginElement("Layout") Layout layout,
-			@PluginElement("Filters") Filter filter) {
+			@PluginElement("Filters") Filter filter,
+			@PluginAttribute(value = "async", defaultBoolean = false) boolean async,
+			@PluginAttribute(value = "bufferSize", defaultInt = DEFAULT_BUFFER_SIZE) int bufferSize) {
 
 		return new TestNGAppender(name, Optional.ofNullable(layout).orElse(
-				PatternLayout.createDefaultLayout()), filter);
+				PatternLayout.createDefaultLayout()), filter, async, bufferSize);
 	}
 
 	public void append(LogEvent event) {
-		String message = String.format(LogFormat, event.getLevel().toString(),
-				LocalDateTime.now().toString(), event.getThreadName(),
-				event.getLoggerName(), event.getMessage().getFormattedMessage());
-		Reporter.log(message);
+		if (buffer == null) {
+			Reporter.log(new Entry(event, null).format());
+			return;
+		}
+		appending.increment();
+		try {
+			if (stopping || !buffer.offer(new Entry(event, Reporter.getCurrentTestResult()))) {
+				dropped.increment();
+			} else if (idle) {
+				Optional.ofNullable(reporter).ifPresent(LockSupport::unpark);
+			}
+		} finally {
+			appending.decrement();
+		}
+	}
+
+	/**
+	 * Return the number of events dropped in async mode because the buffer was full.
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
 	}
 
+	@Override
+	public void start() {
+		if (buffer != null && reporter == null) {
+			stopping = false;
+			Thread thread = new Thread(this::drain, "testng-appender-" + getName());
+			thread.setDaemon(true);
+			reporter = thread;
+			thread.start();
+		}
+		super.start();
+	}
+
+	/**
+	 * Stop the appender, reporting the buffered events first.
+	 */
+	@Override
+	public void stop() {
+		Thread thread = reporter;
+		if (thread != null) {
+			stopping = true;
+			// events being offered right now are either rejected or in the buffer once this returns
+			while (appending.sum() > 0) {
+				Thread.yield();
+			}
+			LockSupport.unpark(thread);
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			reporter = null;
+			if (dropped.sum() > 0) {
+				StatusLogger.getLogger().warn("TestNGAppender {} dropped {} events as its buffer of {} was full",
+						getName(), dropped.sum(), buffer.capacity());
+			}
+		}
+		super.stop();
+	}
+
+	/**
+	 * Report the buffered events in batches, formatting them before taking the reporter's lock once per batch.
+	 */
+	private void drain() {
+		List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+		List<String> lines = new ArrayList<>(BATCH_SIZE);
+		while (true) {
+			boolean last = stopping;
+			if (buffer.drain(batch::add, BATCH_SIZE) == 0) {
+				if (last) {
+					return;
+				}
+				idle = true;
+				// re-check after publishing idle, so an event offered meanwhile either shows up here or unparks
+				if (buffer.isEmpty() && !stopping) {
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+				}
+				idle = false;
+				continue;
+			}
+			batch.forEach(entry -> lines.add(entry.format()));
+			synchronized (Reporter.class) {
+				for (int i = 0; i < batch.size(); i++) {
+					Reporter.setCurrentTestResult(batch.get(i).testResult);
+					Reporter.log(lines.get(i));
+				}
+				Reporter.setCurrentTestResult(null);
+			}
+			batch.clear();
+			lines.clear();
+		}
+	}
+
+	/**
+	 * A log event with the test result of the logging thread, which it is reported on behalf of.
+	 */
+	private static final class Entry {
+		private final Level level;
+		private final long timeMillis;
+		private final String threadName;
+		private final String loggerName;
+		private final String message;
+		private final ITestResult testResult;
+
+		private Entry(LogEvent event, ITestResult testResult) {
+			this.level = event.getLevel();
+			this.timeMillis = event.getTimeMillis();
+			this.threadName = event.getThreadName();
+			this.loggerName = event.getLoggerName();
+			this.message = event.getMessage().getFormattedMessage();
+			this.testResult = testResult;
+		}
+
+		private String format() {
+			return String.format(LogFormat, level, LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis),
+					ZoneId.systemDefault()), threadName, loggerName, message);
+		}
+	}
 }
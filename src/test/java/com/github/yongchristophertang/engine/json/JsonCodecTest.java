@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.json;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see JsonCodec}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class JsonCodecTest {
+    private final JsonCodec codec = new JsonCodec(JsonCodec.defaultMapper());
+
+    @Test
+    public void testReaders_ShouldBeCachedPerTargetType() {
+        assertThat(codec.listReader(Integer.class), sameInstance(codec.listReader(Integer.class)));
+        assertThat(codec.mapReader(String.class, Long.class), sameInstance(codec.mapReader(String.class, Long.class)));
+        assertThat(codec.reader(Map.class), sameInstance(codec.reader(Map.class)));
+    }
+
+    @Test
+    public void testListReader_ShouldReadTypedMembers() throws Exception {
+        List<Long> list = codec.listReader(Long.class).readValue("[1, 2, 3]");
+        assertThat(list, is(Arrays.asList(1L, 2L, 3L)));
+    }
+
+    @Test
+    public void testPrettyPrint_ShouldKeepNonJsonAsItIs() {
+        assertThat(codec.prettyPrint("not a json"), is("not a json"));
+        assertThat(codec.prettyPrint("{a:1}"), is("{" + System.lineSeparator() + "  \"a\" : 1" + System.lineSeparator() + "}"));
+    }
+}
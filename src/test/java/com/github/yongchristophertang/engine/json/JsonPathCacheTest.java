@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.json;
+
+import com.jayway.jsonpath.InvalidPathException;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see JsonPathCache}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class JsonPathCacheTest {
+
+    @Test
+    public void testCompileTwice_ShouldHitTheCache() {
+        JsonPathCache cache = new JsonPathCache(16);
+        cache.warmUp(Arrays.asList("$.a", "$.b[0]"));
+        assertThat(cache.compile("$.a"), sameInstance(cache.compile("$.a")));
+        assertThat(cache.missCount(), is(2L));
+        assertThat(cache.hitCount(), is(2L));
+    }
+
+    @Test
+    public void testFullCache_ShouldEvictPaths() {
+        JsonPathCache cache = new JsonPathCache(2);
+        cache.warmUp(Arrays.asList("$.a", "$.b", "$.c"));
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.stats().evictionCount(), is(1L));
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void testInvalidPath_ShouldThrowInvalidPathException() {
+        new JsonPathCache(16).compile("$.a[");
+    }
+}
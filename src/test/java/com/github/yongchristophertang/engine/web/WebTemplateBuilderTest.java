@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import org.apache.http.HttpHost;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see WebTemplateBuilder}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class WebTemplateBuilderTest {
+
+    @Test
+    public void testPoolConfig_ShouldBeReflectedInPoolStats() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().maxConnTotal(200).maxConnPerRoute(50)
+            .maxConnPerHost("localhost", 8080, 100).evictIdleConnections(30, TimeUnit.SECONDS)
+            .validateAfterInactivity(1000).build()) {
+            assertThat(webTemplate.getPoolStats().getMax(), is(200));
+            assertThat(webTemplate.getPoolStats().getLeased(), is(0));
+            assertThat(webTemplate.getPoolStats(new HttpHost("localhost", 8080)).getMax(), is(100));
+            assertThat(webTemplate.getPoolStats(new HttpHost("localhost", 9090)).getMax(), is(50));
+        }
+    }
+
+    @Test
+    public void testMaxConnPerHost_ShouldTellHttpsRoutesApart() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().maxConnPerRoute(50)
+            .maxConnPerHost(new HttpHost("localhost", -1, "https"), 100).build()) {
+            assertThat(webTemplate.getPoolStats(new HttpHost("localhost", 443, "https")).getMax(), is(100));
+            assertThat(webTemplate.getPoolStats(new HttpHost("localhost", 443)).getMax(), is(50));
+        }
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web;
+
+import com.github.yongchristophertang.engine.web.http.ContentCoding;
+import com.github.yongchristophertang.engine.web.metrics.LatencyRegistry;
+import com.github.yongchristophertang.engine.web.metrics.LatencySummary;
+import com.github.yongchristophertang.engine.web.request.RequestBuilder;
+import com.github.yongchristophertang.engine.web.retry.CircuitBreaker;
+import com.github.yongchristophertang.engine.web.retry.CircuitBreakerOpenException;
+import com.github.yongchristophertang.engine.web.retry.RetryBudget;
+import com.github.yongchristophertang.engine.web.retry.RetryPolicy;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.get;
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.post;
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.status;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@see WebTemplate}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class WebTemplateTest {
+    private static HttpServer server;
+    private static String url;
+    private static String baseUrl;
+    private static final AtomicInteger flakyCount = new AtomicInteger();
+    private static final Set<Integer> lookupPorts = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger closingActive = new AtomicInteger();
+    private static final AtomicInteger closingMax = new AtomicInteger();
+    private static final String CONTENT = new String(new char[1000]).replace("\0", "{\"code\":0}");
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"code\":0}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/cached", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", exchange.getRequestURI().getQuery());
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"code\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            InputStream in = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                in = new GZIPInputStream(in);
+            }
+            byte[] content = ByteStreams.toByteArray(in);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(content);
+            }
+            byte[] body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().add("X-Request-Encoding",
+                String.valueOf(exchange.getRequestHeaders().getFirst("Content-Encoding")));
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/flaky", exchange -> {
+            boolean fail = flakyCount.incrementAndGet() % 3 != 0;
+            byte[] body = (fail ? "unavailable" : "ok").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/lookup", exchange -> {
+            lookupPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = exchange.getRequestURI().getQuery().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/closing", exchange -> {
+            // pipelined requests carry an absolute uri, only count the ones sent again or sent one by one
+            boolean counted = !exchange.getRequestURI().isAbsolute();
+            if (counted) {
+                closingMax.accumulateAndGet(closingActive.incrementAndGet(), Math::max);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (counted) {
+                closingActive.decrementAndGet();
+            }
+            byte[] body = exchange.getRequestURI().getQuery().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Connection", "close");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        url = baseUrl + "/slow";
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testPerform_ShouldRecordTimingsOfEachPhase() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            RequestTimings first = webTemplate.perform(get(url)).andReturn().getTimings();
+            assertThat(first.getConnect(), greaterThan(Duration.ZERO));
+            assertThat(first.getFirstByte(), greaterThanOrEqualTo(Duration.ofMillis(150)));
+            assertThat(first.getLease().plus(first.getConnect()).plus(first.getRequestWrite())
+                .plus(first.getFirstByte()).plus(first.getBodyRead()), lessThanOrEqualTo(first.getTotal()));
+
+            RequestTimings second = webTemplate.perform(get(url)).andReturn().getTimings();
+            assertThat(second.getConnect(), is(Duration.ZERO));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldRecordWaitForPooledConnectionAsLease() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().maxConnPerRoute(1).build()) {
+            List<Future<RequestTimings>> timings = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                timings.add(executor.submit(() -> webTemplate.perform(get(url)).andReturn().getTimings()));
+            }
+            Duration first = timings.get(0).get().getLease();
+            Duration second = timings.get(1).get().getLease();
+            assertThat(first.compareTo(second) > 0 ? first : second, greaterThanOrEqualTo(Duration.ofMillis(150)));
+            assertThat(first.compareTo(second) > 0 ? second : first, lessThan(Duration.ofMillis(150)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPerformAll_ShouldAggregateFailuresAndKeepOrder() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            List<RequestBuilder> builders = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                builders.add(get(i % 5 == 2 ? "http://localhost:1/" : url).param("i", String.valueOf(i)));
+            }
+            try {
+                webTemplate.performAll(builders);
+                fail("performAll should fail");
+            } catch (PerformAllException e) {
+                assertThat(e.getFailures().keySet(), contains(2, 7));
+                assertThat(e.getSuppressed().length, is(2));
+                assertThat(e.getResults().get(2), nullValue());
+                assertThat(e.getResults().get(9).andReturn().getHttpRequest().getRequestLine().getUri(),
+                    endsWith("i=9"));
+            }
+        }
+    }
+
+    @Test
+    public void testPerformAsync_ShouldRecordFirstByte() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            RequestTimings timings = webTemplate.performAsync(get(url)).get().andReturn().getTimings();
+            assertThat(timings.getFirstByte(), greaterThanOrEqualTo(Duration.ofMillis(150)));
+            assertThat(timings.getTotal(), greaterThanOrEqualTo(timings.getFirstByte()));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldServeFreshResponsesFromCache() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().cache().build()) {
+            HttpResult first = webTemplate.perform(get(baseUrl + "/cached?max-age=60")).andReturn();
+            HttpResult second = webTemplate.perform(get(baseUrl + "/cached?max-age=60")).andReturn();
+            assertThat(first.isFromCache(), is(false));
+            assertThat(second.isFromCache(), is(true));
+            assertThat(second.getTimings().getLease(), is(Duration.ZERO));
+            assertThat(second.getResponseStringContent(), is("{\"code\":1}"));
+            assertThat(webTemplate.getCacheStatistics().getMissCount(), is(1L));
+            assertThat(webTemplate.getCacheStatistics().getHitCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldRevalidateStaleResponsesWithETag() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().cache().build()) {
+            webTemplate.perform(get(baseUrl + "/cached?max-age=0"));
+            HttpResult second = webTemplate.perform(get(baseUrl + "/cached?max-age=0")).andReturn();
+            assertThat(second.isFromCache(), is(true));
+            assertThat(second.getResponseStringContent(), is("{\"code\":1}"));
+            assertThat(webTemplate.getCacheStatistics().getRevalidationCount(), is(1L));
+            assertThat(webTemplate.getCacheStatistics().getHitCount(), is(0L));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldNotCacheWithoutCacheOption() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            webTemplate.perform(get(baseUrl + "/cached?max-age=60"));
+            assertThat(webTemplate.perform(get(baseUrl + "/cached?max-age=60")).andReturn().isFromCache(), is(false));
+            assertThat(webTemplate.getCacheStatistics().getMissCount(), is(0L));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldCompressRequestsAndDecodeResponses() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().compressRequests(ContentCoding.GZIP, 1024)
+            .build()) {
+            HttpResult result = webTemplate.perform(post(baseUrl + "/echo").body(CONTENT)).andReturn();
+            assertThat(result.getHttpResponse().getFirstHeader("X-Request-Encoding").getValue(), is("gzip"));
+            assertThat(result.getResponseStringContent(), is(CONTENT));
+            assertThat(result.getResponseContentSize(), is((long) CONTENT.length()));
+            assertThat(result.getResponseWireSize(), lessThan(result.getResponseContentSize()));
+
+            HttpResult small = webTemplate.perform(post(baseUrl + "/echo").body("{}")).andReturn();
+            assertThat(small.getHttpResponse().getFirstHeader("X-Request-Encoding").getValue(), is("null"));
+        }
+    }
+
+    @Test
+    public void testPerformAsync_ShouldCompressRequestsAndDecodeResponses() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            HttpResult result = webTemplate.performAsync(post(baseUrl + "/echo").body(CONTENT)
+                .compress(ContentCoding.GZIP, 0)).get().andReturn();
+            assertThat(result.getHttpResponse().getFirstHeader("X-Request-Encoding").getValue(), is("gzip"));
+            assertThat(result.getResponseStringContent(), is(CONTENT));
+            assertThat(result.getResponseContentSize(), is((long) CONTENT.length()));
+            assertThat(result.getResponseWireSize(), lessThan(result.getResponseContentSize()));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldRetryTransientFailuresWithinBudget() throws Exception {
+        RetryBudget budget = new RetryBudget(0, 3);
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().retry(RetryPolicy.defaults(), budget)
+            .build()) {
+            flakyCount.set(0);
+            HttpResult result = webTemplate.perform(get(baseUrl + "/flaky")).andReturn();
+            assertThat(result.getHttpResponse().getStatusLine().getStatusCode(), is(200));
+            assertThat(result.getRetryCount(), is(2));
+            assertThat(result.getAttemptTimings().size(), is(3));
+            assertThat(result.getAttemptTimings().get(2), is(result.getTimings()));
+
+            flakyCount.set(0);
+            HttpResult exhausted = webTemplate.perform(get(baseUrl + "/flaky")).andReturn();
+            assertThat(exhausted.getHttpResponse().getStatusLine().getStatusCode(), is(503));
+            assertThat(exhausted.getRetryCount(), is(1));
+            assertThat(budget.getRejectionCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldFailFastWhenCircuitIsOpen() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig()
+            .circuitBreaker(new CircuitBreaker(2, Duration.ofMinutes(1))).build()) {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    webTemplate.perform(get("http://localhost:1/"));
+                    fail("connection should be refused");
+                } catch (CircuitBreakerOpenException e) {
+                    fail("circuit should not be open yet");
+                } catch (IOException expected) {
+                }
+            }
+            try {
+                webTemplate.perform(get("http://localhost:1/"));
+                fail("circuit should be open");
+            } catch (CircuitBreakerOpenException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testPerform_ShouldAbortRequestsPastDeadline() throws Exception {
+        long expired = deadlineExceeded("GET /slow");
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().deadline(50, TimeUnit.MILLISECONDS)
+            .build()) {
+            long start = System.nanoTime();
+            try {
+                webTemplate.perform(get(url));
+                fail("deadline should expire");
+            } catch (DeadlineExceededException e) {
+                assertThat(e.getDeadline(), is(50L));
+            }
+            assertThat(System.nanoTime() - start, lessThan(TimeUnit.MILLISECONDS.toNanos(180)));
+            assertThat(deadlineExceeded("GET /slow"), is(expired + 1));
+
+            assertThat(webTemplate.perform(get(url).deadline(0)).andReturn().getHttpResponse().getStatusLine()
+                .getStatusCode(), is(200));
+        }
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testPerform_ShouldOverrideSocketTimeOutPerRequest() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().socketTimeOut(5000).build()) {
+            webTemplate.perform(get(url).socketTimeOut(50));
+        }
+    }
+
+    @Test
+    public void testPerformAsync_ShouldFailPastDeadline() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            webTemplate.performAsync(get(url).deadline(50)).get();
+            fail("deadline should expire");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(DeadlineExceededException.class));
+        }
+    }
+
+    @Test
+    public void testPerformAsync_ShouldApplyDefaultMatchersOnAsyncExecutor() throws Exception {
+        Set<String> matcherThreads = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "async-matchers"));
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().asyncExecutor(executor)
+            .alwaysExpect(result -> matcherThreads.add(Thread.currentThread().getName()))
+            .alwaysExpect(status().is(200)).build()) {
+            assertThat(webTemplate.performAsync(get(baseUrl + "/lookup").param("key", "1")).get().andReturn()
+                .getResponseStringContent(), is("key=1"));
+            try {
+                webTemplate.performAsync(get(baseUrl + "/missing")).get();
+                fail("default matcher should fail");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(AssertionError.class));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(matcherThreads, contains("async-matchers"));
+    }
+
+    @Test
+    public void testPerformBatch_ShouldPipelineRequestsInOrder() throws Exception {
+        lookupPorts.clear();
+        List<RequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            builders.add(get(baseUrl + "/lookup").param("key", String.valueOf(i)));
+        }
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().batchConcurrency(2).pipelining(10).build()) {
+            List<ResultActions> results = webTemplate.performBatch(builders);
+            for (int i = 0; i < 50; i++) {
+                assertThat(results.get(i).andReturn().getResponseStringContent(), is("key=" + i));
+            }
+        }
+        assertThat(lookupPorts.size(), lessThanOrEqualTo(5));
+    }
+
+    @Test
+    public void testPerformBatch_ShouldBoundConcurrencyAndAggregateFailures() throws Exception {
+        List<RequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            builders.add(i == 4 ? get("http://localhost:1/") : post(baseUrl + "/lookup").param("key", "" + i));
+        }
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().batchConcurrency(1).pipelining(10).build()) {
+            webTemplate.performBatch(builders);
+            fail("connection should be refused");
+        } catch (PerformAllException e) {
+            assertThat(e.getFailures().keySet(), contains(4));
+            assertThat(e.getResults().get(9).andReturn().getResponseStringContent(), is("key=9"));
+        }
+    }
+
+    @Test
+    public void testPerformBatch_ShouldReplayFailedPipelinesWithinConcurrency() throws Exception {
+        closingMax.set(0);
+        List<RequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            builders.add(get(baseUrl + "/closing").param("key", String.valueOf(i)));
+        }
+        try (WebTemplate webTemplate = WebTemplateBuilder.customConfig().batchConcurrency(2).pipelining(5).build()) {
+            List<ResultActions> results = webTemplate.performBatch(builders);
+            for (int i = 0; i < 20; i++) {
+                assertThat(results.get(i).andReturn().getResponseStringContent(), is("key=" + i));
+            }
+        }
+        assertThat(closingMax.get(), lessThanOrEqualTo(2));
+    }
+
+    private static long deadlineExceeded(String template) {
+        return LatencyRegistry.getDefault().summaries().stream()
+            .filter(s -> s.getGroup().equals(LatencyRegistry.BY_TEMPLATE) && s.getKey().equals(template))
+            .mapToLong(LatencySummary::getDeadlineExceeded).sum();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import com.google.common.io.ByteStreams;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.StringEntity;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see CompressingEntity}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class CompressingEntityTest {
+    private static final String CONTENT = new String(new char[1000]).replace("\0", "{\"code\":0}");
+
+    @Test
+    public void testGzip_ShouldBeReadableByGzipStream() throws Exception {
+        HttpEntity entity = ContentCoding.GZIP.compress(new StringEntity(CONTENT), 0);
+        assertThat(entity.getContentEncoding().getValue(), is("gzip"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertThat(out.size(), lessThan(CONTENT.length()));
+        try (InputStream in = new GZIPInputStream(entity.getContent())) {
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8), is(CONTENT));
+        }
+    }
+
+    @Test
+    public void testDeflate_ShouldBeReadableByInflaterStream() throws Exception {
+        HttpEntity entity = ContentCoding.DEFLATE.compress(new StringEntity(CONTENT), 0);
+        assertThat(entity.getContentEncoding().getValue(), is("deflate"));
+        try (InputStream in = new InflaterInputStream(entity.getContent())) {
+            assertThat(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8), is(CONTENT));
+        }
+    }
+
+    @Test
+    public void testCompress_ShouldSkipBodiesBelowThreshold() throws Exception {
+        HttpEntity entity = new StringEntity(CONTENT);
+        assertThat(ContentCoding.GZIP.compress(entity, CONTENT.length() + 1), sameInstance(entity));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see MultipartBodyFormBuilder}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class MultipartBodyFormBuilderTest {
+    private Path file;
+
+    @Before
+    public void createFile() throws Exception {
+        file = Files.createTempFile("upload", ".csv");
+        Files.write(file, "0123456789".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void deleteFile() throws Exception {
+        Files.delete(file);
+    }
+
+    @Test
+    public void testFileRegion_ShouldSendOnlyTheRegionWithItsContentType() throws Exception {
+        HttpEntity entity = MultipartBodyFormBuilder.create()
+            .file("region", file, 2, 5, ContentType.create("text/csv")).buildBody().getHttpEntity();
+        String body = write(entity);
+        assertThat(entity.getContentLength(), greaterThan(0L));
+        assertThat(body, containsString("Content-Type: text/csv"));
+        assertThat(body, containsString("\r\n\r\n23456\r\n"));
+    }
+
+    @Test
+    public void testMapped_ShouldBeRepeatable() throws Exception {
+        HttpEntity entity = MultipartBodyFormBuilder.create()
+            .mapped("mapped", file, 0, 10, ContentType.APPLICATION_OCTET_STREAM).buildBody().getHttpEntity();
+        assertThat(entity.isRepeatable(), is(true));
+        assertThat(write(entity), containsString("0123456789"));
+        assertThat(write(entity), containsString("0123456789"));
+        assertThat(entity.isChunked(), is(false));
+    }
+
+    @Test
+    public void testFile_ShouldDefaultToBinaryContentType() throws Exception {
+        HttpEntity entity = MultipartBodyFormBuilder.create().file("file", file).buildBody().getHttpEntity();
+        String body = write(entity);
+        assertThat(body, containsString("Content-Type: application/octet-stream"));
+        assertThat(body, containsString("filename=\"" + file.getFileName() + "\""));
+        assertThat(body, not(containsString("Content-Type: text/plain")));
+    }
+
+    private static String write(HttpEntity entity) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        return out.toString("UTF-8");
+    }
+}
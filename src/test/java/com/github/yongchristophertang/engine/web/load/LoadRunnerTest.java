@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.load;
+
+import com.github.yongchristophertang.engine.web.WebTemplate;
+import com.github.yongchristophertang.engine.web.WebTemplateBuilder;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.get;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see LoadRunner}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class LoadRunnerTest {
+    private static HttpServer server;
+    private static String url;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testOpenModel_ShouldRunAtTargetRate() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            LoadReport report = LoadRunner.of(webTemplate, () -> get(url)).rate(200).warmUp(200, TimeUnit.MILLISECONDS)
+                .rampUp(300, TimeUnit.MILLISECONDS).duration(1, TimeUnit.SECONDS).run();
+            PhaseReport steady = report.getSteadyState();
+            assertThat(report.getPhases().size(), is(3));
+            assertThat(steady.getRequests(), allOf(greaterThan(180L), lessThan(220L)));
+            assertThat(steady.getErrors(), is(0L));
+            assertThat(steady.getLatency().getMax(), greaterThanOrEqualTo(steady.getServiceTime().getMin()));
+            assertThat(report.getUnfinished(), is(0L));
+        }
+    }
+
+    @Test
+    public void testClosedModel_ShouldCountErrors() throws Exception {
+        try (WebTemplate webTemplate = WebTemplateBuilder.defaultConfig().build()) {
+            LoadReport report = LoadRunner.of(webTemplate, () -> get("http://localhost:1/")).concurrency(4)
+                .duration(300, TimeUnit.MILLISECONDS).run();
+            assertThat(report.getSteadyState().getRequests(), greaterThan(0L));
+            assertThat(report.getSteadyState().getErrorRate(), is(1.0));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.metrics;
+
+import com.github.yongchristophertang.engine.web.RequestTimings;
+import com.github.yongchristophertang.engine.web.response.DefaultHttpResult;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see LatencyRegistry}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class LatencyRegistryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static DefaultHttpResult result(String url, String description, long millis) {
+        DefaultHttpResult result = new DefaultHttpResult(new HttpGet(url.replace("{id}", "1")),
+            new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"), millis, description);
+        result.setTimings(RequestTimings.ofTotal(TimeUnit.MILLISECONDS.toNanos(millis)));
+        result.setRequestTemplate(url);
+        return result;
+    }
+
+    @Test
+    public void testRecord_ShouldAggregateByDescriptionAndTemplate() throws Exception {
+        LatencyRegistry registry = new LatencyRegistry();
+        for (int i = 1; i <= 100; i++) {
+            registry.record(result("http://localhost:8080/items/{id}", "get item", i));
+        }
+        registry.record(result("http://localhost:8080/items", "list items", 5));
+
+        List<LatencySummary> summaries = registry.summaries();
+        assertThat(summaries.size(), is(4));
+        LatencySummary item = summaries.get(0);
+        assertThat(item.getGroup(), is(LatencyRegistry.BY_DESCRIPTION));
+        assertThat(item.getKey(), is("get item"));
+        assertThat(item.getCount(), is(100L));
+        assertThat(item.getP50(), closeTo(50, 0.1));
+        assertThat(item.getP99(), closeTo(99, 0.1));
+        assertThat(summaries.get(3).getKey(), is("GET /items/{id}"));
+
+        File directory = folder.newFolder();
+        registry.writeReport(directory);
+        assertThat(new File(directory, "latency.json").isFile(), is(true));
+        assertThat(new File(directory, "latency.csv").isFile(), is(true));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import com.github.yongchristophertang.engine.web.annotations.*;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see RequestProxy}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class RequestProxyTest {
+
+    @Test
+    public void testRepeatedCalls_ShouldBindArgumentsOfEachCall() throws Exception {
+        DemoAPI api = TestRequestBuilders.api(DemoAPI.class);
+        for (int i = 0; i < 3; i++) {
+            HttpRequest request = api.getItem(i, Arrays.asList("a", "b"), "trace-" + i).buildRequest();
+            assertThat(request.getRequestLine().getMethod(), is("GET"));
+            assertThat(request.getRequestLine().getUri(),
+                is("http://localhost:8080/demo/items/" + i + "?tag=a&tag=b&token=fixed"));
+            assertThat(request.getFirstHeader("X-Trace").getValue(), is("trace-" + i));
+        }
+    }
+
+    @Test
+    public void testDescription_ShouldFallBackToMethodName() throws Exception {
+        DemoAPI api = TestRequestBuilders.api(DemoAPI.class);
+        assertThat(api.getItem(1, null, null).getRequestDescription(), is("get an item"));
+        assertThat(api.deleteItem(1).getRequestDescription(), is("deleteItem"));
+    }
+
+    @Test
+    public void testFileParam_ShouldStreamPathsAndInputStreams() throws Exception {
+        java.nio.file.Path file = Files.createTempFile("upload", ".txt");
+        try {
+            Files.write(file, "file content".getBytes(StandardCharsets.UTF_8));
+            DemoAPI api = TestRequestBuilders.api(DemoAPI.class);
+            HttpRequest request = api.upload(file,
+                new ByteArrayInputStream("stream content".getBytes(StandardCharsets.UTF_8))).buildRequest();
+
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            assertThat(entity.getContentLength(), is(-1L));
+            assertThat(entity.isChunked(), is(true));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entity.writeTo(out);
+            String body = out.toString("UTF-8");
+            assertThat(body, containsString("filename=\"" + file.getFileName() + "\""));
+            assertThat(body, containsString("file content"));
+            assertThat(body, containsString("stream content"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTimeout_ShouldOverrideTemplateTimeoutsPerMethod() throws Exception {
+        DemoAPI api = TestRequestBuilders.api(DemoAPI.class);
+        Timeouts timeouts = api.deleteItem(1).getTimeouts();
+        assertThat(timeouts.getSocketTimeout(), is(500));
+        assertThat(timeouts.getDeadline(), is(2000L));
+        assertThat(timeouts.getConnectTimeout(), is(-1));
+        assertThat(api.getItem(1, null, null).getTimeouts().overridesRequestConfig(), is(false));
+    }
+
+    @Host(value = "localhost", port = 8080)
+    @Path("/demo/")
+    interface DemoAPI {
+        @QueryParam("token")
+        String TOKEN = "fixed";
+
+        @GET
+        @Path("items/{id}")
+        @Description("get an item")
+        RequestBuilder getItem(@PathParam("id") int id, @QueryParam("tag") List<String> tags,
+            @HeaderParam("X-Trace") String trace);
+
+        @DELETE
+        @Path("items/{id}")
+        @Timeout(socket = 500, deadline = 2000)
+        RequestBuilder deleteItem(@PathParam("id") int id);
+
+        @POST
+        @Path("files")
+        RequestBuilder upload(@FileParam("file") java.nio.file.Path file, @FileParam("data") InputStream data);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@see StringConverters}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class StringConvertersTest {
+
+    public static class UpperCaseConverter implements StringConverter<String> {
+        @Override
+        public String convert(String obj) {
+            return obj.toUpperCase();
+        }
+    }
+
+    public static class PrefixConverter implements StringConverter<Object> {
+        private final String prefix;
+
+        public PrefixConverter(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String convert(Object obj) {
+            return prefix + obj;
+        }
+    }
+
+    @Test
+    public void testGet_ShouldShareOneInstancePerConverterClass() throws Exception {
+        StringConverter<Object> converter = StringConverters.get(UpperCaseConverter.class);
+        assertThat(converter, instanceOf(UpperCaseConverter.class));
+        assertThat(StringConverters.get(UpperCaseConverter.class), sameInstance(converter));
+        assertThat(converter.convert("id"), is("ID"));
+    }
+
+    @Test
+    public void testGet_ShouldFailForConverterWithoutNoArgConstructor() throws Exception {
+        try {
+            StringConverters.get(PrefixConverter.class);
+            fail("converter without no-arg constructor should not be instantiated");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString(PrefixConverter.class.getName()));
+            assertThat(e.getCause(), instanceOf(ReflectiveOperationException.class));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.request;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see UriTemplate}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class UriTemplateTest {
+
+    @Test
+    public void testOf_ShouldCacheParsedTemplates() throws Exception {
+        assertThat(UriTemplate.of("http://localhost/items/{id}"), sameInstance(UriTemplate.of(
+            "http://localhost/items/{id}")));
+    }
+
+    @Test
+    public void testOf_ShouldKeepCachingRecentTemplatesWhenFull() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            UriTemplate.of("http://localhost/expanded/" + i);
+        }
+        assertThat(UriTemplate.of("http://localhost/recent/{id}"), sameInstance(UriTemplate.of(
+            "http://localhost/recent/{id}")));
+    }
+
+    @Test
+    public void testExpand_ShouldEncodeVariablesAsPathSegments() throws Exception {
+        UriTemplate template = UriTemplate.of("http://localhost/{kind}/${id}/{missing}");
+        assertThat(template.expand(ImmutableMap.of("kind", "a b/c", "id", "\u4e2d:@+"), Collections.emptyList()),
+            is("http://localhost/a%20b%2Fc/%E4%B8%AD:@+/{missing}"));
+    }
+
+    @Test
+    public void testExpand_ShouldEncodeParametersAsForms() throws Exception {
+        List<NameValuePair> parameters = Arrays.asList(new BasicNameValuePair("q", "a b&c~\u00e9"),
+            new BasicNameValuePair("flag", null));
+        assertThat(UriTemplate.of("http://localhost/search?x=1#top").expand(Collections.emptyMap(), parameters),
+            is("http://localhost/search?x=1&" + URLEncodedUtils.format(parameters, "UTF-8") + "#top"));
+        assertThat(UriTemplate.of("http://localhost/search").expand(Collections.emptyMap(), parameters),
+            is("http://localhost/search?q=a+b%26c%7E%C3%A9&flag"));
+    }
+
+    @Test
+    public void testBuildRequest_ShouldExpandPathAndQuery() throws Exception {
+        assertThat(TestRequestBuilders.get("http://localhost/items/{id}").path("id", "1 2").param("tag", "x y")
+            .accept("text/plain", "application/json").buildRequest().getRequestLine().getUri(),
+            is("http://localhost/items/1%202?tag=x+y"));
+    }
+}
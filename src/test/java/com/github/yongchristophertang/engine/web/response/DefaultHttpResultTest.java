@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.response;
+
+import com.github.yongchristophertang.engine.json.JsonCodec;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Scanner;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see DefaultHttpResult}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class DefaultHttpResultTest {
+
+    @Test
+    public void testSpilledBody_ShouldBeReadableManyTimes() throws Exception {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity("{\"test\":[1,2,3],\"name\":\"中文\"}", ContentType.APPLICATION_JSON));
+        DefaultHttpResult result = new DefaultHttpResult(null, response, 0, null,
+            JsonCodec.getDefault(), 8);
+
+        for (int i = 0; i < 2; i++) {
+            try (InputStream in = result.getResponseStream()) {
+                assertThat(new Scanner(in, "UTF-8").useDelimiter("\\A").next(),
+                    is("{\"test\":[1,2,3],\"name\":\"中文\"}"));
+            }
+        }
+        assertThat(result.getJsonContext().read("$.name"), is("中文"));
+        assertThat(result.getResponseStringContent(), is("{\"test\":[1,2,3],\"name\":\"中文\"}"));
+    }
+}
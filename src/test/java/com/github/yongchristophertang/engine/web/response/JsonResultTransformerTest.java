@@ -20,6 +20,13 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.jsonPath;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 
 /**
  * {@see JsonResultTransformer}
@@ -47,7 +54,37 @@ public class JsonResultTransformerTest {
         System.out.println(list);
     }
 
-    private class TestObject {
+    @Test
+    public void testParseAnObjectOut_ShouldKeepItAsJson() throws Exception {
+        JsonResultTransformer json = new JsonResultTransformer();
+        Map<String, Object> map = json.parse("$.a").transform(new DefaultHttpResult() {{
+            setHttpResponse("{\"a\":{\"b\":[1,2,{\"c\":\"x\"}]}}");
+        }}).andExpect(jsonPath("$.b[2].c", "x")).andExpect(jsonPath("$.b").arraySize(3))
+            .andTransform(HttpResultTransformers.json().map(String.class, Object.class));
+        assertThat(map.toString(), is("{b=[1, 2, {c=x}]}"));
+    }
+
+    @Test
+    public void testObjectOfSubPart_ShouldBindTheParsedPart() throws Exception {
+        TestObject object = HttpResultTransformers.json("$.a").object(TestObject.class)
+            .transform(new DefaultHttpResult() {{
+                setHttpResponse("{\"a\":{\"test\":\"value\"}}");
+            }});
+        assertThat(object.getTest(), is("value"));
+    }
+
+    @Test
+    public void testStreamANestedArray_ShouldBindEachElement() throws Exception {
+        try (Stream<TestObject> stream = HttpResultTransformers.json("$.data.items").stream(TestObject.class)
+            .transform(new DefaultHttpResult() {{
+                setHttpResponse("{\"skip\":{\"items\":[0]},\"data\":{\"total\":2,\"items\":[{\"test\":\"a\"}," +
+                    "{\"test\":\"b\"}]}}");
+            }})) {
+            assertThat(stream.map(TestObject::getTest).collect(Collectors.toList()).toString(), is("[a, b]"));
+        }
+    }
+
+    public static class TestObject {
         private String test;
 
         public String getTest() {
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.response;
+
+import com.github.yongchristophertang.engine.web.HttpResult;
+import com.github.yongchristophertang.engine.web.http.CompressingEntity;
+import com.github.yongchristophertang.engine.web.http.ContentCoding;
+import com.github.yongchristophertang.engine.web.http.MultipartBodyFormBuilder;
+import com.github.yongchristophertang.engine.web.response.AsyncPrintResultHandler.Backpressure;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see PrintResultHandler}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class PrintResultHandlerTest {
+
+    private static HttpResult result(String requestBody, String responseBody) {
+        HttpPost request = new HttpPost("http://localhost/grades");
+        request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_FORM_URLENCODED));
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(responseBody, ContentType.APPLICATION_JSON));
+        return new DefaultHttpResult(request, response, 5, "postGrade");
+    }
+
+    @Test
+    public void testFormat_ShouldDecodeRequestAndPrettyPrintResponse() throws Exception {
+        String log = PrintResultHandler.format(new PrintResultHandler()
+            .snapshot(result("name=%E4%B8%AD%E6%96%87&id=1", "{\"code\":0}")));
+        assertThat(log, containsString("API: postGrade"));
+        assertThat(log, containsString("Request URL: POST http://localhost/grades HTTP/1.1"));
+        assertThat(log, containsString("Request Body (URL Decoded): name=\u4e2d\u6587&id=1"));
+        assertThat(log, containsString("Cost Time(ms): 5"));
+        assertThat(log, containsString("Response Status: HTTP/1.1 200 OK"));
+        assertThat(log, containsString("{\n  \"code\" : 0\n}"));
+    }
+
+    @Test
+    public void testFormat_ShouldTruncateBodies() throws Exception {
+        String content = new String(new char[10]).replace("\0", "{\"code\":0}");
+        String log = PrintResultHandler.format(new PrintResultHandler(20).snapshot(result(content, content)));
+        assertThat(log, containsString("Request Body (URL Decoded): {\"code\":0}{\"code\":0} ...(truncated)"));
+        assertThat(log, containsString("{\"code\":0}{\"code\":0} ...(80 more characters truncated)"));
+        assertThat(log, not(containsString(content.substring(0, 30))));
+    }
+
+    @Test
+    public void testFormat_ShouldSkipLargeMultipartAndCompressedBodies() throws Exception {
+        Path file = Files.createTempFile("upload", ".bin");
+        try {
+            Files.write(file, new byte[100 * 1024]);
+            HttpPost request = new HttpPost("http://localhost/files");
+            request.setEntity(MultipartBodyFormBuilder.create().file("f", file).buildBody().getHttpEntity());
+            BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+            response.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+            String log = PrintResultHandler.format(new PrintResultHandler(20)
+                .snapshot(new DefaultHttpResult(request, response, 5, "upload")));
+            assertThat(log, containsString("Multipart, Streaming Or Compressed Body Cannot Be Displayed."));
+        } finally {
+            Files.delete(file);
+        }
+
+        HttpPost request = new HttpPost("http://localhost/grades");
+        request.setEntity(new CompressingEntity(new StringEntity("id=1", ContentType.APPLICATION_FORM_URLENCODED),
+            ContentCoding.GZIP));
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+        String log = PrintResultHandler.format(new PrintResultHandler()
+            .snapshot(new DefaultHttpResult(request, response, 5, "postGrade")));
+        assertThat(log, containsString("Multipart, Streaming Or Compressed Body Cannot Be Displayed."));
+    }
+
+    @Test
+    public void testHandle_ShouldDoNothingBelowInfo() throws Exception {
+        HttpResult untouchable = (HttpResult) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{HttpResult.class}, (proxy, method, args) -> {
+                throw new AssertionError(method.getName() + " should not be called");
+            });
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        LoggerConfig config = context.getConfiguration().getLoggerConfig(PrintResultHandler.class.getName());
+        Level level = config.getLevel();
+        config.setLevel(Level.WARN);
+        context.updateLoggers();
+        try {
+            new PrintResultHandler().handle(untouchable);
+            try (AsyncPrintResultHandler handler = new AsyncPrintResultHandler(1, Backpressure.BLOCK, 100)) {
+                handler.handle(untouchable);
+            }
+        } finally {
+            config.setLevel(level);
+            context.updateLoggers();
+        }
+    }
+
+    @Test
+    public void testPrintAsync_ShouldDropWhenQueueIsFull() throws Exception {
+        CountDownLatch printing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger printed = new AtomicInteger();
+        AsyncPrintResultHandler handler = new AsyncPrintResultHandler(1, Backpressure.DROP, 100) {
+            @Override
+            void print(Snapshot snapshot) {
+                printing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                printed.incrementAndGet();
+            }
+        };
+        handler.handle(result("id=1", "{}"));
+        assertThat(printing.await(5, TimeUnit.SECONDS), is(true));
+        for (int i = 0; i < 3; i++) {
+            handler.handle(result("id=1", "{}"));
+        }
+        assertThat(handler.getDroppedCount(), is(2L));
+        release.countDown();
+        handler.close();
+        assertThat(printed.get(), is(2));
+    }
+
+    @Test
+    public void testPrintAsync_ShouldPrintQueuedResultsOnClose() throws Exception {
+        AtomicInteger printed = new AtomicInteger();
+        AsyncPrintResultHandler handler = new AsyncPrintResultHandler(2, Backpressure.BLOCK, 100) {
+            @Override
+            void print(Snapshot snapshot) {
+                assertThat(format(snapshot), containsString("Response Content"));
+                printed.incrementAndGet();
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            handler.handle(result("id=" + i, "{\"code\":" + i + "}"));
+        }
+        handler.close();
+        assertThat(printed.get(), is(20));
+        assertThat(handler.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void testPrintAsync_ShouldNotLoseResultsQueuedWhileClosing() throws Exception {
+        AtomicInteger printed = new AtomicInteger();
+        AsyncPrintResultHandler handler = new AsyncPrintResultHandler(4, Backpressure.BLOCK, 100) {
+            @Override
+            void print(Snapshot snapshot) {
+                printed.incrementAndGet();
+            }
+        };
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(producers.submit(() -> {
+                handler.handle(result("id=1", "{}"));
+                return null;
+            }));
+        }
+        handler.close();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        producers.shutdown();
+        assertThat(printed.get(), is(200));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.response;
+
+import com.github.yongchristophertang.engine.web.ResultMatcher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@see XPathResultMatcher}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class XPathResultMatcherTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><root><item id=\"1\">a</item>" +
+        "<item id=\"2\">b</item></root>";
+
+    @Test
+    public void testMatchers_ShouldEvaluateOnTheContent() throws Exception {
+        DefaultHttpResult result = new DefaultHttpResult() {{
+            setHttpResponse(XML);
+        }};
+        new XPathResultMatcher("/root/item[@id='2']").value("b").match(result);
+        new XPathResultMatcher("count(/root/item)").value("2").match(result);
+        new XPathResultMatcher("/root/item").exists().match(result);
+        new XPathResultMatcher("/root/none").doesNotExist().match(result);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testExistsOnMissingNode_ShouldFail() throws Exception {
+        new XPathResultMatcher("/root/none").exists().match(new DefaultHttpResult() {{
+            setHttpResponse(XML);
+        }});
+    }
+
+    @Test
+    public void testSharedMatcher_ShouldWorkAcrossThreads() throws Exception {
+        ResultMatcher matcher = HttpResultMatchers.xPath("/root/item[@id='1']", "a");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> {
+                    matcher.match(new DefaultHttpResult() {{
+                        setHttpResponse(XML);
+                    }});
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.response;
+
+import org.junit.Test;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlValue;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.xPath;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see XmlResultTransformer}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class XmlResultTransformerTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><envelope><body><items>" +
+        "<item id=\"1\">a</item><item id=\"2\">b</item></items></body></envelope>";
+
+    private static final String SOAP_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+        "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>" +
+        "<i:items xmlns:i=\"urn:items\"><i:item><i:name>a</i:name></i:item><i:item><i:name>b</i:name></i:item>" +
+        "</i:items></soap:Body></soap:Envelope>";
+
+    private static DefaultHttpResult result() {
+        return result(XML);
+    }
+
+    private static DefaultHttpResult result(String xml) {
+        return new DefaultHttpResult() {{
+            setHttpResponse(xml);
+        }};
+    }
+
+    @Test
+    public void testParseAnElementOut_ShouldKeepItAsXml() throws Exception {
+        List<Item> items = HttpResultTransformers.xml().parse("//items").transform(result())
+            .andExpect(xPath("/items/item[2]", "b")).andTransform(HttpResultTransformers.xml().list(Item.class));
+        assertThat(items.stream().map(i -> i.id + i.value).collect(Collectors.toList()).toString(), is("[1a, 2b]"));
+    }
+
+    @Test
+    public void testObjectOfSubPart_ShouldBindTheElement() throws Exception {
+        Item item = HttpResultTransformers.xml("//item[@id='2']").object(Item.class).transform(result());
+        assertThat(item.value, is("b"));
+    }
+
+    @Test
+    public void testStreamRepeatedElements_ShouldBindEachElement() throws Exception {
+        try (Stream<Item> stream = HttpResultTransformers.xml().stream(Item.class).transform(result())) {
+            assertThat(stream.map(i -> i.value).collect(Collectors.toList()).toString(), is("[a, b]"));
+        }
+    }
+
+    @Test
+    public void testListOfNamespacedElements_ShouldBindTheirNamespacedChildren() throws Exception {
+        List<NamespacedItem> items = HttpResultTransformers.xml("//*[local-name()='item']")
+            .list(NamespacedItem.class).transform(result(SOAP_XML));
+        assertThat(items.stream().map(i -> i.name).collect(Collectors.toList()).toString(), is("[a, b]"));
+        try (Stream<NamespacedItem> stream = HttpResultTransformers.xml().stream("item", NamespacedItem.class)
+            .transform(result(SOAP_XML))) {
+            assertThat(stream.map(i -> i.name).collect(Collectors.toList()).toString(), is("[a, b]"));
+        }
+    }
+
+    @Test
+    public void testObjectOfNamespacedElement_ShouldBindItsNamespacedChildren() throws Exception {
+        NamespacedItem item = HttpResultTransformers.xml("//*[local-name()='item'][2]").object(NamespacedItem.class)
+            .transform(result(SOAP_XML));
+        assertThat(item.name, is("b"));
+    }
+
+    @Test
+    public void testXPathOfNamespacedDocument_ShouldMatchByLocalName() throws Exception {
+        DefaultHttpResult result = result(SOAP_XML);
+        xPath("count(//*[local-name()='item'])", "2").match(result);
+        xPath("//*[local-name()='item'][1]/*[local-name()='name']", "a").match(result);
+    }
+
+    @XmlRootElement(name = "item", namespace = "urn:items")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class NamespacedItem {
+        @XmlElement(namespace = "urn:items")
+        private String name;
+    }
+
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Item {
+        @XmlAttribute
+        private String id;
+        @XmlValue
+        private String value;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.HttpHost;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@see CircuitBreaker}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class CircuitBreakerTest {
+    private final HttpHost host = new HttpHost("localhost", 8080);
+    private final HttpHost other = new HttpHost("localhost", 8081);
+
+    @Test
+    public void testOnFailure_ShouldOpenCircuitOfTheHostAfterThreshold() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+        breaker.acquire(host);
+        breaker.onFailure(host);
+        breaker.onSuccess(host);
+        breaker.onFailure(host);
+        assertThat(breaker.getState(host), is(CircuitBreaker.State.CLOSED));
+
+        breaker.onFailure(host);
+        assertThat(breaker.getState(host), is(CircuitBreaker.State.OPEN));
+        try {
+            breaker.acquire(host);
+            fail("circuit should be open");
+        } catch (CircuitBreakerOpenException e) {
+            assertThat(e.getHost(), is(host));
+        }
+        breaker.acquire(other);
+    }
+
+    @Test
+    public void testAcquire_ShouldLetOneTrialThroughAfterOpenDuration() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(50));
+        breaker.onFailure(host);
+        Thread.sleep(60);
+
+        breaker.acquire(host);
+        assertThat(breaker.getState(host), is(CircuitBreaker.State.HALF_OPEN));
+        try {
+            breaker.acquire(host);
+            fail("only one trial should be let through");
+        } catch (CircuitBreakerOpenException expected) {
+        }
+        breaker.onSuccess(host);
+        assertThat(breaker.getState(host), is(CircuitBreaker.State.CLOSED));
+    }
+}
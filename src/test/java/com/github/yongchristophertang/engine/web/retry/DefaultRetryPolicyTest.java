@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yongchristophertang.engine.web.retry;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see DefaultRetryPolicy}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class DefaultRetryPolicyTest {
+    private final RetryPolicy policy = DefaultRetryPolicy.create().maxRetries(2)
+        .backoff(Duration.ofMillis(100), Duration.ofSeconds(1));
+
+    @Test
+    public void testRetryDelay_ShouldBackOffExponentiallyWithJitter() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.retryDelay(new HttpGet("/"), response(503), null, 0),
+                allOf(greaterThanOrEqualTo(0L), lessThanOrEqualTo(100L)));
+            assertThat(policy.retryDelay(new HttpGet("/"), response(503), null, 1),
+                allOf(greaterThanOrEqualTo(0L), lessThanOrEqualTo(200L)));
+        }
+        assertThat(policy.retryDelay(new HttpGet("/"), response(503), null, 2), is(RetryPolicy.NO_RETRY));
+    }
+
+    @Test
+    public void testRetryDelay_ShouldOnlyRetryIdempotentRequestsWhenProcessingIsUnknown() {
+        assertThat(policy.retryDelay(new HttpGet("/"), response(502), null, 0), greaterThanOrEqualTo(0L));
+        assertThat(policy.retryDelay(new HttpPost("/"), response(502), null, 0), is(RetryPolicy.NO_RETRY));
+        assertThat(policy.retryDelay(new HttpPost("/"), response(503), null, 0), greaterThanOrEqualTo(0L));
+        assertThat(policy.retryDelay(new HttpGet("/"), null, new SocketTimeoutException(), 0),
+            greaterThanOrEqualTo(0L));
+        assertThat(policy.retryDelay(new HttpPost("/"), null, new SocketTimeoutException(), 0),
+            is(RetryPolicy.NO_RETRY));
+        assertThat(policy.retryDelay(new HttpPost("/"), null, new ConnectException(), 0), greaterThanOrEqualTo(0L));
+        assertThat(policy.retryDelay(new HttpGet("/"), null, new UnknownHostException(), 0),
+            is(RetryPolicy.NO_RETRY));
+        assertThat(policy.retryDelay(new HttpGet("/"), response(500), null, 0), is(RetryPolicy.NO_RETRY));
+    }
+
+    @Test
+    public void testRetryDelay_ShouldHonorRetryAfter() {
+        HttpResponse response = response(429);
+        response.setHeader("Retry-After", "1");
+        assertThat(policy.retryDelay(new HttpPost("/"), response, null, 0), is(1000L));
+
+        response.setHeader("Retry-After", "5");
+        assertThat(policy.retryDelay(new HttpPost("/"), response, null, 0), is(RetryPolicy.NO_RETRY));
+    }
+
+    private static HttpResponse response(int status) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keep-alive HTTP/1.1 connection of a {@link StubServer}. Requests are parsed incrementally from the socket,
+ * bodies are skipped without being buffered, and pipelined requests are answered strictly in order even if their
+ * routes have different latencies. All the methods are called by the owning {@link StubWorker} thread only.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class StubConnection {
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEAD_SIZE = 64 * 1024;
+    private static final int MAX_PENDING_RESPONSES = 1024;
+
+    private enum State {
+        HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, TRAILER, CLOSING
+    }
+
+    private final StubWorker worker;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final Queue<Pending> pending = new ArrayDeque<>();
+    private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private State state = State.HEAD;
+    private long remaining;
+    private String method;
+    private String path;
+    private boolean keepAlive;
+
+    StubConnection(StubWorker worker, SocketChannel channel, SelectionKey key) {
+        this.worker = worker;
+        this.channel = channel;
+        this.key = key;
+    }
+
+    void read() {
+        int read;
+        try {
+            read = channel.read(in);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+        in.flip();
+        try {
+            parse();
+        } catch (RuntimeException e) {
+            respond(StubResponse.BAD_REQUEST, false);
+        }
+        in.compact();
+        if (!in.hasRemaining() && state == State.HEAD) {
+            if (in.capacity() >= MAX_HEAD_SIZE) {
+                in.clear();
+                respond(StubResponse.BAD_REQUEST, false);
+            } else {
+                in.flip();
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in);
+            }
+        }
+        flush();
+    }
+
+    private void parse() {
+        while (in.hasRemaining()) {
+            switch (state) {
+                case HEAD:
+                    String head = line(true);
+                    if (head == null) {
+                        return;
+                    }
+                    if (!head.isEmpty()) {
+                        request(head);
+                    }
+                    break;
+                case BODY:
+                case CHUNK_DATA:
+                    int skipped = (int) Math.min(in.remaining(), remaining);
+                    in.position(in.position() + skipped);
+                    remaining -= skipped;
+                    if (remaining == 0) {
+                        if (state == State.BODY) {
+                            complete();
+                        } else {
+                            state = State.CHUNK_SIZE;
+                        }
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    String size = line(false);
+                    if (size == null) {
+                        return;
+                    }
+                    int extension = size.indexOf(';');
+                    remaining = Long.parseLong((extension < 0 ? size : size.substring(0, extension)).trim(), 16);
+                    if (remaining == 0) {
+                        state = State.TRAILER;
+                    } else {
+                        remaining += 2;
+                        state = State.CHUNK_DATA;
+                    }
+                    break;
+                case TRAILER:
+                    String trailer = line(false);
+                    if (trailer == null) {
+                        return;
+                    }
+                    if (trailer.isEmpty()) {
+                        complete();
+                    }
+                    break;
+                default:
+                    in.position(in.limit());
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Read the next line, or the whole request head if {@code head}, from the input buffer. Return {@code null} if it
+     * is not complete yet.
+     */
+    private String line(boolean head) {
+        byte[] bytes = in.array();
+        int start = in.position();
+        int limit = in.limit();
+        for (int i = start; i + 1 < limit; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                if (!head || i == start) {
+                    in.position(i + 2);
+                    return new String(bytes, start, i - start, StandardCharsets.ISO_8859_1);
+                }
+                if (i + 3 < limit && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                    in.position(i + 4);
+                    return new String(bytes, start, i - start, StandardCharsets.ISO_8859_1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Interpret a request head and decide how its body is framed.
+     */
+    private void request(String head) {
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3) {
+            throw new IllegalArgumentException("Malformed request line " + lines[0]);
+        }
+        method = requestLine[0];
+        path = requestLine[1];
+        int authority = path.indexOf("://");
+        if (authority >= 0) {
+            // absolute-form, as sent by the pipelining client
+            int slash = path.indexOf('/', authority + 3);
+            path = slash < 0 ? "/" : path.substring(slash);
+        }
+        int query = path.indexOf('?');
+        path = query < 0 ? path : path.substring(0, query);
+        keepAlive = requestLine[2].equals("HTTP/1.1");
+        remaining = 0;
+        boolean chunked = false;
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+            String value = lines[i].substring(colon + 1).trim();
+            switch (name) {
+                case "content-length":
+                    remaining = Long.parseLong(value);
+                    break;
+                case "transfer-encoding":
+                    chunked = value.toLowerCase(Locale.ENGLISH).endsWith("chunked");
+                    break;
+                case "connection":
+                    keepAlive = value.equalsIgnoreCase("keep-alive") || keepAlive && !value.equalsIgnoreCase("close");
+                    break;
+                case "expect":
+                    if (value.equalsIgnoreCase("100-continue")) {
+                        pending.add(new Pending(StubResponse.CONTINUE.render(false), false));
+                    }
+                    break;
+                default:
+            }
+        }
+        if (chunked) {
+            state = State.CHUNK_SIZE;
+        } else if (remaining > 0) {
+            state = State.BODY;
+        } else {
+            complete();
+        }
+    }
+
+    /**
+     * The current request has been read entirely, queue its response.
+     */
+    private void complete() {
+        StubResponse response = worker.getServer().route(method, path);
+        boolean close = !keepAlive;
+        state = close ? State.CLOSING : State.HEAD;
+        long latency = response.getLatencyNanos();
+        if (latency == 0) {
+            respond(response, !close);
+        } else {
+            Pending delayed = new Pending(response.render(method.equals("HEAD")), close);
+            delayed.ready = false;
+            pending.add(delayed);
+            worker.schedule(() -> {
+                delayed.ready = true;
+                flush();
+            }, latency, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void respond(StubResponse response, boolean keepAlive) {
+        if (!keepAlive) {
+            state = State.CLOSING;
+        }
+        pending.add(new Pending(response.render("HEAD".equals(method)), !keepAlive));
+    }
+
+    /**
+     * Write the ready responses in request order, as far as the socket accepts them.
+     */
+    void flush() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        while (!pending.isEmpty() && pending.peek().ready) {
+            Pending head = pending.peek();
+            try {
+                channel.write(head.buffers);
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (head.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            pending.poll();
+            if (head.close) {
+                close();
+                return;
+            }
+        }
+        key.interestOps(pending.size() < MAX_PENDING_RESPONSES ? SelectionKey.OP_READ : 0);
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // already broken
+        }
+    }
+
+    /**
+     * A response waiting for its turn on the connection, closing the connection afterwards if {@code close}. An
+     * empty response closes the connection at once.
+     */
+    private static final class Pending {
+        private final ByteBuffer[] buffers;
+        private final boolean close;
+        private boolean ready = true;
+
+        private Pending(ByteBuffer[] buffers, boolean close) {
+            this.buffers = buffers;
+            this.close = close || buffers.length == 0;
+        }
+
+        private boolean hasRemaining() {
+            for (ByteBuffer buffer : buffers) {
+                if (buffer.hasRemaining()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Wire form of a {@link StubRoute}. The encoded buffers are shared by all connections, each response writes
+ * duplicates of them, so that answering a request allocates next to nothing.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class StubResponse {
+    static final StubResponse NOT_FOUND = new StubResponse(404);
+    static final StubResponse BAD_REQUEST = new StubResponse(400);
+    static final StubResponse CONTINUE = new StubResponse(100);
+    private static final ByteBuffer[] NOTHING = new ByteBuffer[0];
+
+    private final ByteBuffer head;
+    private final ByteBuffer body;
+    private final ByteBuffer failure;
+    private final long latencyNanos;
+    private final double failRate;
+    private final double disconnectRate;
+
+    StubResponse(ByteBuffer head, ByteBuffer body, ByteBuffer failure, long latencyNanos, double failRate,
+        double disconnectRate) {
+        this.head = head;
+        this.body = body;
+        this.failure = failure;
+        this.latencyNanos = latencyNanos;
+        this.failRate = failRate;
+        this.disconnectRate = disconnectRate;
+    }
+
+    private StubResponse(int status) {
+        this(ByteBuffer.wrap(StubRoute.statusLine(status).append(status == 100 ? "" : "Content-Length: 0\r\n")
+            .append("\r\n").toString().getBytes()), ByteBuffer.allocate(0), null, 0, 0, 0);
+    }
+
+    long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Return the buffers to write for one request, or an empty array if the connection is to be closed without any
+     * response.
+     */
+    ByteBuffer[] render(boolean headOnly) {
+        if (failRate > 0 || disconnectRate > 0) {
+            double dice = ThreadLocalRandom.current().nextDouble();
+            if (dice < disconnectRate) {
+                return NOTHING;
+            }
+            if (dice < disconnectRate + failRate) {
+                return new ByteBuffer[]{failure.duplicate()};
+            }
+        }
+        return headOnly || !body.hasRemaining() ? new ByteBuffer[]{head.duplicate()} :
+            new ByteBuffer[]{head.duplicate(), body.duplicate()};
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+import static com.github.yongchristophertang.engine.AssertUtils.stringNotBlank;
+
+/**
+ * Route definition of a {@link StubServer}, which matches requests by method and path and answers them with a canned
+ * response. Path segments written as {@code {name}} or {@code ${name}} match any single segment and a trailing
+ * {@code /**} matches any remainder, the query string is ignored.
+ * <p>
+ * <pre class="code">
+ * StubRoute.get("/users/{id}").json("{\"id\":1}");
+ * StubRoute.post("/upload").status(201).latency(20, TimeUnit.MILLISECONDS);
+ * StubRoute.get("/large").payload(5 * 1024 * 1024).chunked(8192);
+ * StubRoute.any("/flaky/**").fail(0.1, 503).disconnect(0.01);
+ * </pre>
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class StubRoute {
+    private static final String ANY_METHOD = "*";
+    private static final String ANY_SEGMENT = "";
+    private static final String ANY_REMAINDER = "**";
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final String method;
+    private final String path;
+    private final String[] segments;
+    private int status = 200;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private byte[] body = new byte[0];
+    private int chunkSize;
+    private long latencyNanos;
+    private double failRate;
+    private int failStatus = 500;
+    private double disconnectRate;
+
+    private StubRoute(String method, String path) {
+        stringNotBlank(path, "Path must not be blank");
+        isTrue(path.startsWith("/"), "Path must start with /");
+        this.method = method;
+        this.path = path;
+        this.segments = Arrays.stream(path.substring(1).split("/", -1))
+            .map(s -> s.startsWith("{") || s.startsWith("${") ? ANY_SEGMENT : s).toArray(String[]::new);
+        isTrue(Arrays.asList(segments).indexOf(ANY_REMAINDER) < 0 ||
+            Arrays.asList(segments).indexOf(ANY_REMAINDER) == segments.length - 1, "/** must be the last segment");
+    }
+
+    /**
+     * Create a route for requests with the given {@code method}.
+     */
+    public static StubRoute request(String method, String path) {
+        stringNotBlank(method, "Method must not be blank");
+        return new StubRoute(method.toUpperCase(Locale.ENGLISH), path);
+    }
+
+    /**
+     * Create a route for requests with any method.
+     */
+    public static StubRoute any(String path) {
+        return new StubRoute(ANY_METHOD, path);
+    }
+
+    /**
+     * Create a route for GET requests, which also answers HEAD requests without the body.
+     */
+    public static StubRoute get(String path) {
+        return request("GET", path);
+    }
+
+    public static StubRoute post(String path) {
+        return request("POST", path);
+    }
+
+    public static StubRoute put(String path) {
+        return request("PUT", path);
+    }
+
+    public static StubRoute delete(String path) {
+        return request("DELETE", path);
+    }
+
+    /**
+     * Set the response status, 200 by default.
+     */
+    public StubRoute status(int status) {
+        isTrue(status >= 100 && status < 600, "Status must be within [100, 600)");
+        this.status = status;
+        return this;
+    }
+
+    /**
+     * Add a response header.
+     */
+    public StubRoute header(String name, String value) {
+        stringNotBlank(name, "Header name must not be blank");
+        notNull(value, "Header value must not be null");
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Set the response body and its content type.
+     */
+    public StubRoute body(byte[] body, String contentType) {
+        notNull(body, "Body must not be null");
+        this.body = body.clone();
+        return contentType == null ? this : header("Content-Type", contentType);
+    }
+
+    /**
+     * Set a plain text response body.
+     */
+    public StubRoute body(String body) {
+        notNull(body, "Body must not be null");
+        return body(body.getBytes(StandardCharsets.UTF_8), "text/plain; charset=UTF-8");
+    }
+
+    /**
+     * Set a json response body.
+     */
+    public StubRoute json(String json) {
+        notNull(json, "Json must not be null");
+        return body(json.getBytes(StandardCharsets.UTF_8), "application/json; charset=UTF-8");
+    }
+
+    /**
+     * Set a generated json response body of exactly {@code size} bytes, in the form of {@code {"data":"xxx..."}}.
+     */
+    public StubRoute payload(int size) {
+        isTrue(size >= 0, "Payload size must not be negative");
+        byte[] payload = new byte[size];
+        Arrays.fill(payload, (byte) 'x');
+        byte[] prefix = "{\"data\":\"".getBytes(StandardCharsets.US_ASCII);
+        if (size >= prefix.length + 2) {
+            System.arraycopy(prefix, 0, payload, 0, prefix.length);
+            payload[size - 2] = '"';
+            payload[size - 1] = '}';
+        }
+        this.body = payload;
+        return header("Content-Type", "application/json; charset=UTF-8");
+    }
+
+    /**
+     * Send the body with {@code Transfer-Encoding: chunked} in chunks of {@code chunkSize} bytes instead of with a
+     * {@code Content-Length}.
+     */
+    public StubRoute chunked(int chunkSize) {
+        isTrue(chunkSize > 0, "Chunk size must be positive");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Delay each response by {@code latency}, without occupying any server thread while waiting.
+     */
+    public StubRoute latency(long latency, TimeUnit unit) {
+        isTrue(latency >= 0, "Latency must not be negative");
+        this.latencyNanos = unit.toNanos(latency);
+        return this;
+    }
+
+    /**
+     * Answer a random {@code rate} of the requests with an empty {@code status} response instead.
+     */
+    public StubRoute fail(double rate, int status) {
+        isTrue(rate >= 0 && rate <= 1, "Rate must be within [0, 1]");
+        isTrue(status >= 100 && status < 600, "Status must be within [100, 600)");
+        this.failRate = rate;
+        this.failStatus = status;
+        return this;
+    }
+
+    /**
+     * Close the connection without any response for a random {@code rate} of the requests.
+     */
+    public StubRoute disconnect(double rate) {
+        isTrue(rate >= 0 && rate <= 1, "Rate must be within [0, 1]");
+        this.disconnectRate = rate;
+        return this;
+    }
+
+    boolean matches(String requestMethod, String requestPath) {
+        if (!method.equals(ANY_METHOD) && !method.equals(requestMethod) &&
+            !(method.equals("GET") && requestMethod.equals("HEAD"))) {
+            return false;
+        }
+        String[] parts = requestPath.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].equals(ANY_REMAINDER)) {
+                return true;
+            }
+            if (i >= parts.length || (segments[i].equals(ANY_SEGMENT) ? parts[i].isEmpty() :
+                !segments[i].equals(parts[i]))) {
+                return false;
+            }
+        }
+        return parts.length == segments.length;
+    }
+
+    /**
+     * Encode the route into its immutable wire form.
+     */
+    StubResponse compile() {
+        StringBuilder head = statusLine(status);
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        ByteBuffer encodedBody;
+        if (chunkSize > 0) {
+            head.append("Transfer-Encoding: chunked\r\n\r\n");
+            encodedBody = ByteBuffer.allocate(body.length + (body.length / chunkSize + 1) * 12 + 5);
+            for (int offset = 0; offset < body.length; offset += chunkSize) {
+                int length = Math.min(chunkSize, body.length - offset);
+                encodedBody.put((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII))
+                    .put(body, offset, length).put(CRLF);
+            }
+            encodedBody.put("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII)).flip();
+        } else {
+            head.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+            encodedBody = ByteBuffer.wrap(body.clone());
+        }
+        ByteBuffer failure = ByteBuffer.wrap(
+            statusLine(failStatus).append("Content-Length: 0\r\n\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+        return new StubResponse(ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.UTF_8)), encodedBody,
+            failure, latencyNanos, failRate, disconnectRate);
+    }
+
+    static StringBuilder statusLine(int status) {
+        return new StringBuilder(256).append("HTTP/1.1 ").append(status).append(' ')
+            .append(Objects.toString(EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ENGLISH), ""))
+            .append("\r\n");
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import com.github.yongchristophertang.engine.web.request.TestRequestBuilders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded NIO HTTP/1.1 server answering requests with the canned responses of its {@link StubRoute}s, for hermetic
+ * tests and benchmarks on a single machine. Connections are kept alive and may be pipelined, a handful of selector
+ * threads serve all of them and responses are pre-encoded, so the server easily outpaces any client under test.
+ * Requests not matching any route are answered with 404.
+ * <p>
+ * <pre class="code">
+ * try (StubServer server = StubServerBuilder.create()
+ *         .route(StubRoute.get("/v5/categories/grades/{id}").json("{\"code\":0}"))
+ *         .build()) {
+ *     webTemplate.perform(server.api(TestAPI.class).getBooks("1")).andExpect(status().isOk());
+ * }
+ * </pre>
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class StubServer implements Closeable {
+    private final StubRoute[] routes;
+    private final StubResponse[] responses;
+    private final ServerSocketChannel serverChannel;
+    private final StubWorker[] workers;
+    private final ScheduledExecutorService timer;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final LongAdder requestCount = new LongAdder();
+
+    StubServer(InetSocketAddress address, List<StubRoute> routes, int ioThreads) throws IOException {
+        this.routes = routes.toArray(new StubRoute[routes.size()]);
+        this.responses = routes.stream().map(StubRoute::compile).toArray(StubResponse[]::new);
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stub-server-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers = new StubWorker[ioThreads];
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address, 1024);
+            serverChannel.configureBlocking(false);
+            for (int i = 0; i < ioThreads; i++) {
+                workers[i] = new StubWorker(this);
+                Thread thread = new Thread(workers[i], "stub-server-" + getPort() + "-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        workers[0].listen(serverChannel);
+    }
+
+    /**
+     * Return the bound port, which is useful if the server is bound to an ephemeral port.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Return the base url of the server, e.g. {@code http://127.0.0.1:41234}.
+     */
+    public String getBaseUrl() {
+        return "http://" + serverChannel.socket().getInetAddress().getHostAddress() + ":" + getPort();
+    }
+
+    /**
+     * Create a proxy of the {@link com.github.yongchristophertang.engine.web.annotations.Host} annotated interface
+     * {@code clientIface}, which sends its requests to this server instead.
+     */
+    public <T> T api(Class<T> clientIface) {
+        return TestRequestBuilders.api(clientIface, getBaseUrl());
+    }
+
+    /**
+     * Return the number of requests received so far.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    StubResponse route(String method, String path) {
+        requestCount.increment();
+        for (int i = 0; i < routes.length; i++) {
+            if (routes[i].matches(method, path)) {
+                return responses[i];
+            }
+        }
+        return StubResponse.NOT_FOUND;
+    }
+
+    StubWorker nextWorker() {
+        return workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+    }
+
+    ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
+    /**
+     * Stop the server and close all its connections.
+     */
+    @Override
+    public void close() throws IOException {
+        timer.shutdownNow();
+        for (StubWorker worker : workers) {
+            if (worker != null) {
+                worker.shutdown();
+            }
+        }
+        serverChannel.close();
+    }
+}
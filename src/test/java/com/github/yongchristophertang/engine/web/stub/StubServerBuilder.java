@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.yongchristophertang.engine.AssertUtils.isTrue;
+import static com.github.yongchristophertang.engine.AssertUtils.notNull;
+import static com.github.yongchristophertang.engine.AssertUtils.stringNotBlank;
+
+/**
+ * Builder to configure and start a {@link StubServer}. The server listens on an ephemeral port of the loopback
+ * interface unless configured otherwise.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public final class StubServerBuilder {
+    private String host = "127.0.0.1";
+    private int port;
+    private int ioThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private final List<StubRoute> routes = new ArrayList<>();
+
+    private StubServerBuilder() {
+    }
+
+    public static StubServerBuilder create() {
+        return new StubServerBuilder();
+    }
+
+    /**
+     * Set the address to listen on, 127.0.0.1 by default.
+     */
+    public StubServerBuilder host(String host) {
+        stringNotBlank(host, "Host must not be blank");
+        this.host = host;
+        return this;
+    }
+
+    /**
+     * Set the port to listen on, an ephemeral one by default.
+     */
+    public StubServerBuilder port(int port) {
+        isTrue(port >= 0 && port < 65536, "Port must be within [0, 65536)");
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Set the number of selector threads, by default half of the processors but no more than 4.
+     */
+    public StubServerBuilder ioThreads(int ioThreads) {
+        isTrue(ioThreads > 0, "IO threads must be positive");
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * Add a route, routes are matched in the order they are added.
+     */
+    public StubServerBuilder route(StubRoute route) {
+        notNull(route, "Route must not be null");
+        routes.add(route);
+        return this;
+    }
+
+    /**
+     * Start the server.
+     */
+    public StubServer build() throws IOException {
+        return new StubServer(new InetSocketAddress(host, port), routes, ioThreads);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import com.github.yongchristophertang.engine.web.HttpResult;
+import com.github.yongchristophertang.engine.web.ResultActions;
+import com.github.yongchristophertang.engine.web.TestAPI;
+import com.github.yongchristophertang.engine.web.WebTemplate;
+import com.github.yongchristophertang.engine.web.WebTemplateBuilder;
+import com.github.yongchristophertang.engine.web.request.RequestBuilder;
+import com.google.common.io.ByteStreams;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.get;
+import static com.github.yongchristophertang.engine.web.request.TestRequestBuilders.post;
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.jsonPath;
+import static com.github.yongchristophertang.engine.web.response.HttpResultMatchers.status;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@see StubServer}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class StubServerTest {
+    private static StubServer server;
+    private static WebTemplate webTemplate;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        server = StubServerBuilder.create()
+            .route(StubRoute.get("/v5/categories/grades/{id}").json("{\"code\":0}"))
+            .route(StubRoute.get("/large").payload(100_000).chunked(4096))
+            .route(StubRoute.get("/slow").body("slow").latency(100, TimeUnit.MILLISECONDS))
+            .route(StubRoute.any("/broken/**").fail(1, 503))
+            .route(StubRoute.get("/gone").disconnect(1))
+            .route(StubRoute.post("/echo").status(201).header("X-Stub", "yes").body("created"))
+            .build();
+        webTemplate = WebTemplateBuilder.defaultConfig().build();
+    }
+
+    @AfterClass
+    public static void stopServer() throws Exception {
+        webTemplate.close();
+        server.close();
+    }
+
+    @Test
+    public void testApi_ShouldTargetStubServerInsteadOfHost() throws Exception {
+        webTemplate.perform(server.api(TestAPI.class).getBooks("1")).andExpect(status().is(200))
+            .andExpect(jsonPath("$.code").value(0));
+        webTemplate.perform(get(server.getBaseUrl() + "/v5/categories/grades")).andExpect(status().is(404));
+    }
+
+    @Test
+    public void testRoute_ShouldSendChunkedPayload() throws Exception {
+        HttpResult result = webTemplate.perform(get(server.getBaseUrl() + "/large")).andReturn();
+        assertThat(result.getHttpResponse().getFirstHeader("Transfer-Encoding").getValue(), is("chunked"));
+        assertThat(result.getResponseContentSize(), is(100_000L));
+        assertThat(result.getResponseStringContent(), startsWith("{\"data\":\"xxx"));
+        assertThat(result.getResponseStringContent(), endsWith("xxx\"}"));
+    }
+
+    @Test
+    public void testRoute_ShouldDelayResponses() throws Exception {
+        long start = System.nanoTime();
+        webTemplate.perform(get(server.getBaseUrl() + "/slow")).andExpect(status().is(200));
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void testRoute_ShouldInjectErrors() throws Exception {
+        webTemplate.perform(post(server.getBaseUrl() + "/broken/a/b").body("{}")).andExpect(status().is(503));
+        try {
+            webTemplate.perform(get(server.getBaseUrl() + "/gone"));
+            fail("connection should be closed without response");
+        } catch (IOException expected) {
+        }
+        HttpResult result = webTemplate.perform(post(server.getBaseUrl() + "/echo").body("{}")).andReturn();
+        assertThat(result.getHttpResponse().getStatusLine().getStatusCode(), is(201));
+        assertThat(result.getHttpResponse().getFirstHeader("X-Stub").getValue(), is("yes"));
+    }
+
+    @Test
+    public void testServer_ShouldAnswerPipelinedRequestsInOrder() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /slow HTTP/1.1\r\nHost: stub\r\n\r\n" +
+                "POST /echo HTTP/1.1\r\nHost: stub\r\nTransfer-Encoding: chunked\r\n\r\n" +
+                "3\r\nabc\r\n2;ext=1\r\nde\r\n0\r\n\r\n" +
+                "HEAD /v5/categories/grades/1 HTTP/1.1\r\nHost: stub\r\n\r\n" +
+                "POST /echo HTTP/1.1\r\nContent-Length: 5\r\nConnection: close\r\n\r\nhello")
+                .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String responses = new String(ByteStreams.toByteArray(socket.getInputStream()), StandardCharsets.UTF_8);
+            assertThat(responses, is("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=UTF-8\r\n" +
+                "Content-Length: 4\r\n\r\nslow" +
+                "HTTP/1.1 201 Created\r\nX-Stub: yes\r\nContent-Type: text/plain; charset=UTF-8\r\n" +
+                "Content-Length: 7\r\n\r\ncreated" +
+                "HTTP/1.1 200 OK\r\nContent-Type: application/json; charset=UTF-8\r\nContent-Length: 10\r\n\r\n" +
+                "HTTP/1.1 201 Created\r\nX-Stub: yes\r\nContent-Type: text/plain; charset=UTF-8\r\n" +
+                "Content-Length: 7\r\n\r\ncreated"));
+        }
+    }
+
+    @Test
+    public void testPerformBatch_ShouldBePipelinedAgainstStubServer() throws Exception {
+        long requests = server.getRequestCount();
+        List<RequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            builders.add(server.api(TestAPI.class).getBooks(String.valueOf(i)));
+        }
+        try (WebTemplate batchTemplate = WebTemplateBuilder.customConfig().pipelining(20).build()) {
+            for (ResultActions actions : batchTemplate.performBatch(builders)) {
+                actions.andExpect(status().is(200));
+            }
+        }
+        assertThat(server.getRequestCount() - requests, is(200L));
+    }
+
+    @Test
+    public void testBuild_ShouldRejectOccupiedPort() throws Exception {
+        try (StubServer occupied = StubServerBuilder.create().port(server.getPort()).build()) {
+            fail("port should be occupied");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), containsString("Address already in use"));
+        }
+    }
+
+    @Test
+    public void testRoute_ShouldMatchWildcards() {
+        assertThat(StubRoute.get("/a/{id}/c").matches("GET", "/a/1/c"), is(true));
+        assertThat(StubRoute.get("/a/${id}").matches("HEAD", "/a/1"), is(true));
+        assertThat(StubRoute.get("/a/{id}").matches("GET", "/a/"), is(false));
+        assertThat(StubRoute.get("/a/{id}").matches("POST", "/a/1"), is(false));
+        assertThat(StubRoute.any("/a/**").matches("PUT", "/a/1/2"), is(true));
+        assertThat(StubRoute.any("/a/**").matches("PUT", "/b/1"), is(false));
+        assertThat(StubRoute.post("/a").matches("POST", "/a/b"), is(false));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.engine.web.stub;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selector loop of a {@link StubServer} which serves its share of the connections on a single thread. Anything
+ * touching those connections from other threads is handed over by {@link #execute(Runnable)}.
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+final class StubWorker implements Runnable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final StubServer server;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    StubWorker(StubServer server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+    }
+
+    StubServer getServer() {
+        return server;
+    }
+
+    /**
+     * Run {@code task} on the worker thread.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Run {@code task} on the worker thread after {@code delay}.
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit) {
+        try {
+            server.getTimer().schedule(() -> execute(task), delay, unit);
+        } catch (RejectedExecutionException e) {
+            // the server is closing
+        }
+    }
+
+    /**
+     * Accept new connections of {@code serverChannel} on this worker.
+     */
+    void listen(ServerSocketChannel serverChannel) {
+        execute(() -> {
+            try {
+                serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException e) {
+                LOGGER.error("Cannot listen on " + serverChannel, e);
+            }
+        });
+    }
+
+    /**
+     * Serve {@code channel} on this worker.
+     */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new StubConnection(this, channel, key));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot register " + channel, e);
+            }
+        });
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                    } else if (key.isWritable()) {
+                        ((StubConnection) key.attachment()).flush();
+                    } else if (key.isReadable()) {
+                        ((StubConnection) key.attachment()).read();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Stub server worker stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // closing anyway
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) {
+        try {
+            for (SocketChannel channel = serverChannel.accept(); channel != null; channel = serverChannel.accept()) {
+                server.nextWorker().register(channel);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot accept connections", e);
+        }
+    }
+}
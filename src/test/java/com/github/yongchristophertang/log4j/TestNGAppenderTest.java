@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yongchristophertang.log4j;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.Test;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.internal.TestResult;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@see TestNGAppender}
+ *
+ * @author Yong Tang
+ * @since 0.7
+ */
+public class TestNGAppenderTest {
+
+    private static LogEvent event(String message) {
+        return new Log4jLogEvent("com.github.yongchristophertang.Test", null, null, Level.INFO,
+            new SimpleMessage(message), null);
+    }
+
+    private static void logAs(TestNGAppender appender, ITestResult result, String prefix, int count) {
+        Reporter.setCurrentTestResult(result);
+        try {
+            for (int i = 0; i < count; i++) {
+                appender.append(event(prefix + i));
+            }
+        } finally {
+            Reporter.setCurrentTestResult(null);
+        }
+    }
+
+    @Test
+    public void testAppend_ShouldReportSynchronously() {
+        TestNGAppender appender = TestNGAppender.createAppender("sync", null, null, false, 0);
+        ITestResult result = new TestResult();
+        logAs(appender, result, "sync-", 1);
+        assertThat(Reporter.getOutput(result), hasSize(1));
+        assertThat(Reporter.getOutput(result).get(0), startsWith("INFO "));
+        assertThat(Reporter.getOutput(result).get(0), endsWith(" com.github.yongchristophertang.Test >> sync-0"));
+    }
+
+    @Test
+    public void testAppendAsync_ShouldReportOnBehalfOfLoggingTests() throws Exception {
+        TestNGAppender appender = TestNGAppender.createAppender("async", null, null, true, 1 << 16);
+        appender.start();
+        ITestResult first = new TestResult();
+        ITestResult second = new TestResult();
+        Thread thread = new Thread(() -> logAs(appender, second, "second-", 1000));
+        thread.start();
+        logAs(appender, first, "first-", 1000);
+        thread.join();
+        appender.stop();
+
+        List<String> firstOutput = Reporter.getOutput(first);
+        assertThat(firstOutput, hasSize(1000));
+        assertThat(firstOutput.get(999), endsWith(">> first-999"));
+        assertThat(Reporter.getOutput(second), hasSize(1000));
+        assertThat(Reporter.getOutput(second), everyItem(containsString(">> second-")));
+        assertThat(appender.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void testAppendAsync_ShouldDropWhenBufferIsFull() {
+        TestNGAppender appender = TestNGAppender.createAppender("full", null, null, true, 4);
+        ITestResult result = new TestResult();
+        logAs(appender, result, "full-", 6);
+        assertThat(appender.getDroppedCount(), is(2L));
+
+        appender.start();
+        appender.stop();
+        assertThat(Reporter.getOutput(result), hasSize(4));
+        assertThat(Reporter.getOutput(result).get(3), endsWith(">> full-3"));
+    }
+
+    @Test
+    public void testAppendAsync_ShouldReportIdleEventsAndCountThoseAfterStop() throws Exception {
+        TestNGAppender appender = TestNGAppender.createAppender("idle", null, null, true, 16);
+        appender.start();
+        ITestResult result = new TestResult();
+        Thread.sleep(50);
+        logAs(appender, result, "idle-", 1);
+        for (int i = 0; i < 100 && Reporter.getOutput(result).isEmpty(); i++) {
+            Thread.sleep(5);
+        }
+        assertThat(Reporter.getOutput(result), hasSize(1));
+
+        appender.stop();
+        logAs(appender, result, "stopped-", 2);
+        assertThat(Reporter.getOutput(result), hasSize(1));
+        assertThat(appender.getDroppedCount(), is(2L));
+    }
+
+    @Test
+    public void testRingBuffer_ShouldKeepOrderOfEachProducer() throws Exception {
+        RingBuffer<int[]> buffer = new RingBuffer<>(100);
+        assertThat(buffer.capacity(), is(128));
+        int producers = 4;
+        int perProducer = 20000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new int[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        int[] next = new int[producers];
+        int consumed = 0;
+        while (consumed < producers * perProducer) {
+            consumed += buffer.drain(e -> assertThat(e[1], is(next[e[0]]++)), 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.drain(e -> { }, 64), is(0));
+        assertThat(next[0] + next[1] + next[2] + next[3], is(producers * perProducer));
+    }
+}